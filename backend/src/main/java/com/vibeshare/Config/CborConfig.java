@@ -0,0 +1,21 @@
+package com.vibeshare.Config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+@Configuration
+public class CborConfig {
+
+    @Bean
+    public CBORMapper cborMapper() {
+        return CBORMapper.builder().build();
+    }
+
+    /** REST responses in CBOR for clients sending Accept: application/cbor, JSON stays the default */
+    @Bean
+    public JacksonCborHttpMessageConverter cborHttpMessageConverter(CBORMapper cborMapper) {
+        return new JacksonCborHttpMessageConverter(cborMapper);
+    }
+}
@@ -0,0 +1,97 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Util.AuthUtil;
+import com.vibeshare.Util.ConversationTopics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Only members may SUBSCRIBE to /topic/conversation.{id} and its sub-topics.
+ * Topic subscriptions may not use wildcards, which both brokers would match
+ * against every conversation. Clients may not SEND to broker destinations at
+ * all, everything they publish goes through the /app handlers.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConversationSubscriptionInterceptor implements ChannelInterceptor {
+
+    private final ConversationMembershipService membershipService;
+    private final ConversationSubscriptions subscriptions;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (type == SimpMessageType.UNSUBSCRIBE) {
+            subscriptions.unsubscribed(sessionId, SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()));
+            return message;
+        }
+        if (type == SimpMessageType.DISCONNECT) {
+            subscriptions.disconnected(sessionId);
+            return message;
+        }
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return message;
+        }
+
+        if (type == SimpMessageType.MESSAGE && !destination.startsWith("/app/")) {
+            throw new AccessDeniedException("Clients cannot publish to " + destination);
+        }
+
+        if (type == SimpMessageType.SUBSCRIBE && destination.startsWith("/topic/") && hasWildcard(destination)) {
+            throw new AccessDeniedException("Wildcard subscriptions are not allowed: " + destination);
+        }
+
+        if (type == SimpMessageType.SUBSCRIBE && destination.startsWith(ConversationTopics.PREFIX)) {
+            long conversationId = parseConversationId(destination);
+            Long userId = AuthUtil.getUserPrincipal(SimpMessageHeaderAccessor.getUser(message.getHeaders())).getId();
+            if (conversationId < 0 || !membershipService.isMember(conversationId, userId)) {
+                throw new AccessDeniedException("Not a member of " + destination);
+            }
+            // Remembered so the subscription can be ended when the user leaves
+            subscriptions.subscribed(userId, sessionId,
+                    SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()), conversationId);
+        }
+        return message;
+    }
+
+    private static boolean hasWildcard(String destination) {
+        for (int i = 0; i < destination.length(); i++) {
+            char c = destination.charAt(i);
+            if (c == '*' || c == '#' || c == '?' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Digits after the prefix up to the next '.' or the end, -1 if there are none or anything else
+    private static long parseConversationId(String destination) {
+        int start = ConversationTopics.PREFIX.length();
+        int end = destination.indexOf('.', start);
+        if (end < 0) {
+            end = destination.length();
+        }
+        if (end == start || end - start > 18) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            char c = destination.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+}
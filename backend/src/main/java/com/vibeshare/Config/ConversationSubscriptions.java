@@ -0,0 +1,79 @@
+package com.vibeshare.Config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conversation topic subscriptions of the sessions on this node, recorded by
+ * ConversationSubscriptionInterceptor, so a member who leaves stops receiving
+ * the conversation right away instead of until they resubscribe.
+ */
+@Component
+public class ConversationSubscriptions {
+
+    // userId -> sessionId -> subscriptionId -> conversationId
+    private final Map<Long, Map<String, Map<String, Long>>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionOwners = new ConcurrentHashMap<>();
+    private final MessageChannel clientInboundChannel;
+
+    // Lazy: the channel is built by the broker configuration, which needs the interceptors first
+    public ConversationSubscriptions(@Lazy @Qualifier("clientInboundChannel") MessageChannel clientInboundChannel) {
+        this.clientInboundChannel = clientInboundChannel;
+    }
+
+    /** Ends the user's subscriptions to the conversation's topics on this node */
+    public void end(Long conversationId, Long userId) {
+        Map<String, Map<String, Long>> sessions = byUser.get(userId);
+        if (sessions == null) {
+            return;
+        }
+        sessions.forEach((sessionId, subscriptions) -> subscriptions.forEach((subscriptionId, subscribedTo) -> {
+            if (subscribedTo.equals(conversationId) && subscriptions.remove(subscriptionId) != null) {
+                unsubscribe(sessionId, subscriptionId);
+            }
+        }));
+    }
+
+    void subscribed(Long userId, String sessionId, String subscriptionId, long conversationId) {
+        sessionOwners.put(sessionId, userId);
+        byUser.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, conversationId);
+    }
+
+    void unsubscribed(String sessionId, String subscriptionId) {
+        Long userId = sessionOwners.get(sessionId);
+        Map<String, Map<String, Long>> sessions = userId != null ? byUser.get(userId) : null;
+        Map<String, Long> subscriptions = sessions != null ? sessions.get(sessionId) : null;
+        if (subscriptions != null) {
+            subscriptions.remove(subscriptionId);
+        }
+    }
+
+    void disconnected(String sessionId) {
+        Long userId = sessionOwners.remove(sessionId);
+        if (userId != null) {
+            byUser.computeIfPresent(userId, (id, sessions) -> {
+                sessions.remove(sessionId);
+                return sessions.isEmpty() ? null : sessions;
+            });
+        }
+    }
+
+    // Handled like the client's own UNSUBSCRIBE by the simple broker and the relay alike
+    private void unsubscribe(String sessionId, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setNativeHeader(StompHeaderAccessor.STOMP_ID_HEADER, subscriptionId);
+        clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+}
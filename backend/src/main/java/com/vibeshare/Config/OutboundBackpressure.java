@@ -0,0 +1,167 @@
+package com.vibeshare.Config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Slow-consumer policy for outbound STOMP frames.
+ * <p>
+ * Every frame handed to the client outbound channel is counted as pending for
+ * its session until the transport actually writes it, so pending bytes cover
+ * the outbound executor queue, Spring's per-session send buffer and the write
+ * in progress. Above chat.ws.ephemeral-drop-threshold-bytes, typing and
+ * presence frames for that session are dropped instead of queued. Sessions
+ * that still fall behind hit the send buffer / send time limits set in
+ * WebSocketConfig and are closed by Spring.
+ * <p>
+ * Frames are matched to writes in order. STOMP ERROR frames are written
+ * straight to the session by the protocol handler, never pass the channel and
+ * are not matched against a pending size.
+ */
+@Component
+@Slf4j
+public class OutboundBackpressure implements ChannelInterceptor {
+
+    private final Map<String, SessionBacklog> backlogs = new ConcurrentHashMap<>();
+    private final Counter droppedFrames;
+
+    @Value("${chat.ws.ephemeral-drop-threshold-bytes:65536}")
+    private long ephemeralDropThreshold;
+
+    public OutboundBackpressure(MeterRegistry meterRegistry) {
+        this.droppedFrames = Counter.builder("chat.ws.outbound.dropped")
+                .description("Ephemeral frames dropped for slow sessions")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.pending.bytes", backlogs,
+                        map -> map.values().stream().mapToLong(backlog -> backlog.bytes.get()).sum())
+                .description("Bytes queued for all sessions and not yet written")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.outbound.pending.max.bytes", backlogs,
+                        map -> map.values().stream().mapToLong(backlog -> backlog.bytes.get()).max().orElse(0))
+                .description("Largest per-session outbound backlog")
+                .register(meterRegistry);
+        Gauge.builder("chat.ws.sessions", backlogs, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        SessionBacklog backlog = sessionId != null ? backlogs.get(sessionId) : null;
+        if (backlog == null || SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.HEARTBEAT) {
+            return message;
+        }
+
+        int size = message.getPayload() instanceof byte[] bytes ? bytes.length : 0;
+        if (backlog.bytes.get() > ephemeralDropThreshold && isEphemeral(SimpMessageHeaderAccessor.getDestination(headers))) {
+            droppedFrames.increment();
+            return null;
+        }
+        backlog.enqueued(size);
+        return message;
+    }
+
+    // Superseded by the next event anyway, safe to lose for a slow client
+    private boolean isEphemeral(String destination) {
+        return destination != null && (destination.endsWith(".typing") || destination.contains("/queue/user.status"));
+    }
+
+    /** Registered through WebSocketTransportRegistration, sees the raw transport session */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionBacklog backlog = new SessionBacklog();
+                backlogs.put(session.getId(), backlog);
+                super.afterConnectionEstablished(new CountingSession(session, backlog));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                SessionBacklog backlog = backlogs.remove(session.getId());
+                if (backlog != null && closeStatus.equalsCode(CloseStatus.SESSION_NOT_RELIABLE)) {
+                    log.info("Closed slow session {} with {} bytes pending", session.getId(), backlog.bytes.get());
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    private static class SessionBacklog {
+        private final AtomicLong bytes = new AtomicLong();
+        private final Queue<Integer> frameSizes = new ConcurrentLinkedQueue<>();
+
+        void enqueued(int size) {
+            frameSizes.add(size);
+            bytes.addAndGet(size);
+        }
+
+        void written() {
+            Integer size = frameSizes.poll();
+            if (size != null) {
+                bytes.addAndGet(-size);
+            }
+        }
+    }
+
+    private static class CountingSession extends WebSocketSessionDecorator {
+        private static final String ERROR_COMMAND = "ERROR\n";
+
+        private final SessionBacklog backlog;
+
+        CountingSession(WebSocketSession delegate, SessionBacklog backlog) {
+            super(delegate);
+            this.backlog = backlog;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            // STOMP heartbeats are a bare EOL and were never counted as pending
+            if (message.getPayloadLength() > 1 && !isError(message)) {
+                backlog.written();
+            }
+        }
+
+        private static boolean isError(WebSocketMessage<?> message) {
+            if (message instanceof TextMessage text) {
+                return text.getPayload().startsWith(ERROR_COMMAND);
+            }
+            if (message instanceof BinaryMessage binary) {
+                ByteBuffer payload = binary.getPayload().duplicate();
+                byte[] command = new byte[Math.min(ERROR_COMMAND.length(), payload.remaining())];
+                payload.get(command);
+                return ERROR_COMMAND.equals(new String(command, StandardCharsets.US_ASCII));
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.Util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-session outbound payload encoding.
+ * <p>
+ * A client on the native /ws-native endpoint can CONNECT with
+ * {@code accept-content:application/cbor}; JSON MESSAGE frames to that session
+ * are then re-encoded to CBOR. STOMP only emits binary WebSocket frames for
+ * octet-stream bodies, so they go out as {@code application/octet-stream;codec=cbor}.
+ * SockJS sessions always stay on JSON, SockJS cannot carry binary frames.
+ * <p>
+ * The CBOR form is cached by payload content. With the simple broker a
+ * broadcast shares one array across subscribers, but the relay hands every
+ * subscriber its own copy of the body, so an identity key would never hit.
+ */
+@Component
+@Slf4j
+public class PayloadEncodingInterceptor implements ChannelInterceptor {
+
+    public static final String NATIVE_TRANSPORT_ATTR = "nativeTransport";
+    public static final MimeType CBOR_FRAME_TYPE = new MimeType("application", "octet-stream", Map.of("codec", "cbor"));
+
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+
+    private final Set<String> cborSessions = ConcurrentHashMap.newKeySet();
+    // Short-lived: only has to span the frames of one broadcast
+    private final BoundedCache<ByteBuffer, byte[]> transcoded = new BoundedCache<>(1024, 10_000);
+
+    public PayloadEncodingInterceptor(JsonMapper jsonMapper, CBORMapper cborMapper) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = cborMapper;
+    }
+
+    /** Inbound side: records the encoding negotiated at CONNECT */
+    public ChannelInterceptor inbound() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+                if (accessor == null || accessor.getSessionId() == null) {
+                    return message;
+                }
+                if (StompCommand.CONNECT.equals(accessor.getCommand()) && wantsCbor(accessor)) {
+                    cborSessions.add(accessor.getSessionId());
+                } else if (StompCommand.DISCONNECT.equals(accessor.getCommand())) {
+                    cborSessions.remove(accessor.getSessionId());
+                }
+                return message;
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        if (accessor == null
+                || accessor.getMessageType() != SimpMessageType.MESSAGE
+                || !cborSessions.contains(accessor.getSessionId())
+                || !(message.getPayload() instanceof byte[] json)
+                || accessor.getContentType() == null
+                || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(accessor.getContentType())) {
+            return message;
+        }
+
+        byte[] cbor;
+        try {
+            cbor = transcoded.computeIfAbsent(ByteBuffer.wrap(json), key -> toCbor(json));
+        } catch (RuntimeException e) {
+            log.warn("Could not re-encode frame for session {}, sending JSON: {}", accessor.getSessionId(), e.getMessage());
+            return message;
+        }
+
+        SimpMessageHeaderAccessor cborAccessor = SimpMessageHeaderAccessor.wrap(message);
+        cborAccessor.setContentType(CBOR_FRAME_TYPE);
+        return MessageBuilder.createMessage(cbor, cborAccessor.getMessageHeaders());
+    }
+
+    private boolean wantsCbor(StompHeaderAccessor accessor) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        String accept = accessor.getFirstNativeHeader("accept-content");
+        return accept != null
+                && accept.contains(CborMessageConverter.APPLICATION_CBOR.toString())
+                && attributes != null
+                && Boolean.TRUE.equals(attributes.get(NATIVE_TRANSPORT_ATTR));
+    }
+
+    private byte[] toCbor(byte[] json) {
+        JsonNode tree = jsonMapper.readTree(json);
+        return cborMapper.writeValueAsBytes(tree);
+    }
+}
@@ -0,0 +1,30 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.Service.PresenceService;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SessionActivityInterceptor implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    // Lazy: PresenceService needs the messaging template, which is built from WebSocketConfig
+    public SessionActivityInterceptor(@Lazy PresenceService presenceService) {
+        this.presenceService = presenceService;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        // Runs for every inbound frame, HEARTBEAT included, so keep it to a map write
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            presenceService.sessionActive(sessionId);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,53 @@
+package com.vibeshare.Config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open transport sessions of this node by id (the STOMP session id), so
+ * services can close a session they have given up on.
+ */
+@Component
+@Slf4j
+public class WebSocketSessions {
+
+    private final Map<String, WebSocketSession> open = new ConcurrentHashMap<>();
+
+    /** Registered through WebSocketTransportRegistration */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                open.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                open.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /** Closes the session if it is open here; the usual disconnect handling follows */
+    public void close(String sessionId, CloseStatus status) {
+        WebSocketSession session = open.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Closing session {} failed: {}", sessionId, e.getMessage());
+        }
+    }
+}
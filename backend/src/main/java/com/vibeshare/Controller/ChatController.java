@@ -1,16 +1,17 @@
 package com.vibeshare.Controller;
 
 import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Request.AddMembersRequest;
 import com.vibeshare.DTO.Request.ChatRequest;
+import com.vibeshare.DTO.Response.ConversationMemberResponse;
 import com.vibeshare.DTO.Response.ConversationResponse;
-import com.vibeshare.Model.User;
+import com.vibeshare.DTO.Response.InboxEntryResponse;
 import com.vibeshare.Service.ChatService;
-import com.vibeshare.Service.UserService;
+import com.vibeshare.Util.AuthUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -19,23 +20,73 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
-    private final UserService userService;
 
     @PostMapping("/conversation")
-    public ResponseEntity<ConversationResponse> createOrGetConversation(@RequestBody ChatRequest request, Principal principal) {
-        User user = userService.getUserByEmail(principal.getName());
-        return ResponseEntity.ok(chatService.createOrGetConversation(request, user.getId()));
+    public ResponseEntity<ConversationResponse> createOrGetConversation(@RequestBody ChatRequest request) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.createOrGetConversation(request, userId));
     }
 
     @GetMapping("/conversations")
-    public ResponseEntity<List<ConversationResponse>> getUserConversations(Principal principal) {
-        User user = userService.getUserByEmail(principal.getName());
-        return ResponseEntity.ok(chatService.getUserConversations(user.getId()));
+    public ResponseEntity<List<ConversationResponse>> getUserConversations() {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.getUserConversations(userId));
+    }
+
+    @GetMapping("/inbox")
+    public ResponseEntity<List<InboxEntryResponse>> getInbox(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.getInbox(userId, page, size));
     }
 
     @GetMapping("/messages/{conversationId}")
-    public ResponseEntity<List<MessageDTO>> getConversationMessages(@PathVariable Long conversationId) {
-        return ResponseEntity.ok(chatService.getConversationMessages(conversationId));
+    public ResponseEntity<List<MessageDTO>> getConversationMessages(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.getConversationMessages(conversationId, userId, before, limit));
+    }
+
+    @GetMapping("/conversations/{conversationId}/members")
+    public ResponseEntity<List<ConversationMemberResponse>> getConversationMembers(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.getConversationMembers(conversationId, userId, after, limit));
+    }
+
+    @PostMapping("/conversations/{conversationId}/members")
+    public ResponseEntity<List<ConversationMemberResponse>> addMembers(
+            @PathVariable Long conversationId,
+            @RequestBody AddMembersRequest request
+    ) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.addMembers(conversationId, userId, request.getUserIds()));
+    }
+
+    @DeleteMapping("/conversations/{conversationId}/members/me")
+    public ResponseEntity<Void> leaveConversation(@PathVariable Long conversationId) {
+        Long userId = AuthUtil.getCurrentUserId();
+        chatService.leaveConversation(conversationId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<MessageDTO>> searchMessages(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        Long userId = AuthUtil.getCurrentUserId();
+        return ResponseEntity.ok(chatService.searchMessages(userId, query, conversationId, before, limit));
     }
 
     @PostMapping("/attachment")
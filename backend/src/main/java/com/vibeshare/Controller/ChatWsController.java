@@ -1,9 +1,14 @@
 package com.vibeshare.Controller;
 
 import com.vibeshare.DTO.MessageDTO;
-import com.vibeshare.Model.User;
+import com.vibeshare.DTO.Response.UserSummary;
 import com.vibeshare.Service.ChatService;
-import com.vibeshare.Service.UserService;
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Service.TypingService;
+import com.vibeshare.Service.UserDirectoryService;
+import com.vibeshare.Service.UserEventService;
+import com.vibeshare.Util.AuthUtil;
+import com.vibeshare.Util.ConversationTopics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -18,47 +23,55 @@ import java.util.Map;
 public class ChatWsController {
 
     private final ChatService chatService;
-    private final UserService userService;
+    private final ConversationMembershipService membershipService;
+    private final UserDirectoryService userDirectoryService;
+    private final TypingService typingService;
+    private final UserEventService userEventService;
     private final SimpMessagingTemplate messagingTemplate;
 
-    @MessageMapping("/chat.send")
+    @MessageMapping("chat.send")
     public void sendMessage(@Payload MessageDTO messageDTO, Principal principal) {
-        User sender = userService.getUserByEmail(principal.getName());
-        MessageDTO savedMessage = chatService.sendMessage(messageDTO, sender.getId());
-        
-        // Broadcast to the conversation topic
-        messagingTemplate.convertAndSend("/topic/conversation/" + messageDTO.getConversationId(), savedMessage);
+        Long senderId = AuthUtil.getUserPrincipal(principal).getId();
+
+        // The conversation topic broadcast happens after commit, see MessageDeliveryWorker
+        chatService.sendMessage(messageDTO, senderId);
     }
 
-    @MessageMapping("/chat.typing")
+    @MessageMapping("chat.typing")
     public void handleTyping(@Payload Map<String, Object> payload, Principal principal) {
         Long conversationId = Long.valueOf(payload.get("conversationId").toString());
         boolean isTyping = (boolean) payload.get("isTyping");
-        User user = userService.getUserByEmail(principal.getName());
-        
-        Map<String, Object> response = Map.of(
-                "username", user.getUsername(),
-                "isTyping", isTyping,
-                "conversationId", conversationId
-        );
-        
-        messagingTemplate.convertAndSend("/topic/conversation/" + conversationId + "/typing", (Object) response);
+        UserSummary user = userDirectoryService.resolve(principal);
+        membershipService.requireMember(conversationId, user.getId());
+
+        // Coalesced per conversation/user, see TypingServiceImpl
+        typingService.onTyping(conversationId, user.getId(), user.getUsername(), isTyping);
     }
 
-    @MessageMapping("/chat.read")
+    @MessageMapping("chat.read")
     public void handleReadReceipt(@Payload Map<String, Object> payload, Principal principal) {
         Long messageId = Long.valueOf(payload.get("messageId").toString());
         Long conversationId = Long.valueOf(payload.get("conversationId").toString());
-        User user = userService.getUserByEmail(principal.getName());
-        
-        chatService.markAsRead(messageId);
-        
+        UserSummary user = userDirectoryService.resolve(principal);
+
+        // messageId is the newest message the reader has seen; everything up to it is read
+        Long applied = chatService.markConversationRead(conversationId, user.getId(), messageId);
+        if (applied == null) {
+            return;
+        }
+
         Map<String, Object> response = Map.of(
-                "messageId", messageId,
+                "messageId", applied,
                 "conversationId", conversationId,
+                "readerId", user.getId(),
                 "readerUsername", user.getUsername()
         );
         
-        messagingTemplate.convertAndSend("/topic/conversation/" + conversationId + "/read", (Object) response);
+        messagingTemplate.convertAndSend(ConversationTopics.read(conversationId), (Object) response);
+
+        // Kept for members who are offline right now and catch up on reconnect
+        chatService.getConversationMemberIds(conversationId).stream()
+                .filter(memberId -> !memberId.equals(user.getId()))
+                .forEach(memberId -> userEventService.append(memberId, UserEventService.TYPE_READ, response));
     }
 }
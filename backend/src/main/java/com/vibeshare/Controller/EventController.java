@@ -0,0 +1,25 @@
+package com.vibeshare.Controller;
+
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Service.UserEventService;
+import com.vibeshare.Util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final UserEventService userEventService;
+
+    // Reconnect catch-up: everything pushed to the current user after seq
+    @GetMapping("/since")
+    public ResponseEntity<UserEventsSinceResponse> since(@RequestParam long seq) {
+        return ResponseEntity.ok(userEventService.since(AuthUtil.getCurrentUserId(), seq));
+    }
+}
@@ -3,7 +3,9 @@ package com.vibeshare.Controller;
 import com.vibeshare.DTO.Request.CreateNotificationRequest;
 import com.vibeshare.DTO.NotificationResponse;
 import com.vibeshare.Service.NotificationService;
+import com.vibeshare.Util.AuthUtil;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 // ✅ Add these imports
@@ -11,6 +13,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -19,40 +22,87 @@ public class NotificationController {
     private final NotificationService notificationService;
 
     // ✅ Add this Endpoint for Real-time Connection
-    @GetMapping(path = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamNotifications(@PathVariable Long userId) {
-        return notificationService.createSubscription(userId);
+    // The stream is always the caller's own; a path id is only accepted when it matches
+    @GetMapping(path = {"/stream", "/stream/{userId}"}, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @PathVariable(required = false) Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam
+    ) {
+        Long currentUserId = AuthUtil.getCurrentUserId();
+        if (userId != null && !userId.equals(currentUserId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        // EventSource sends the header on its own reconnects; a fresh EventSource can only pass the param
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return ResponseEntity.ok(notificationService.createSubscription(currentUserId, lastEventId));
     }
 
     // Create (manual) — useful for testing
     @PostMapping
-    public ResponseEntity<NotificationResponse> create(@RequestBody CreateNotificationRequest req) {
-        return ResponseEntity.ok(notificationService.createAndSend(req));
+    public ResponseEntity<Void> create(@RequestBody CreateNotificationRequest req) {
+        if (!notificationService.createAndSend(req)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        // Delivered asynchronously, over SSE once stored
+        return ResponseEntity.accepted().build();
     }
 
-    // Get all notifications for a user
+    // Newest first; pass the oldest loaded id as before to page further back
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<NotificationResponse>> getForUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(notificationService.getNotificationsForUser(userId));
+    public ResponseEntity<List<NotificationResponse>> getForUser(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "30") int limit
+    ) {
+        if (!isCaller(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationService.getNotificationsForUser(userId, before, limit));
     }
 
-    // Get unread only
+    // Get unread only, newest first
     @GetMapping("/user/{userId}/unread")
-    public ResponseEntity<List<NotificationResponse>> getUnread(@PathVariable Long userId) {
-        return ResponseEntity.ok(notificationService.getUnreadNotificationsForUser(userId));
+    public ResponseEntity<List<NotificationResponse>> getUnread(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "30") int limit
+    ) {
+        if (!isCaller(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(notificationService.getUnreadNotificationsForUser(userId, limit));
     }
 
-    // Mark one read
+    // Badge count, read from the maintained counter
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        if (!isCaller(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(userId)));
+    }
+
+    // Mark one read, only the recipient may
     @PostMapping("/{id}/read")
     public ResponseEntity<Void> markRead(@PathVariable Long id) {
-        notificationService.markAsRead(id);
+        if (!notificationService.markAsRead(AuthUtil.getCurrentUserId(), id)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         return ResponseEntity.ok().build();
     }
 
     // Mark all read for user
     @PostMapping("/user/{userId}/read-all")
     public ResponseEntity<Void> markAllRead(@PathVariable Long userId) {
+        if (!isCaller(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
         notificationService.markAllAsRead(userId);
         return ResponseEntity.ok().build();
     }
+
+    // The user paths only ever serve the caller's own notifications
+    private boolean isCaller(Long userId) {
+        return userId.equals(AuthUtil.getCurrentUserId());
+    }
 }
\ No newline at end of file
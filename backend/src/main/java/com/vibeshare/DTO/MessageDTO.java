@@ -19,7 +19,10 @@ public class MessageDTO {
     private String senderName;
     private String content;
     private LocalDateTime timestamp;
+    private Long sequence;
     private Message.MessageType type;
     private String attachmentUrl;
     private Boolean isRead = false;
+    // True when the write was still committing at the timeout; the message arrives on the topic once stored
+    private Boolean pending;
 }
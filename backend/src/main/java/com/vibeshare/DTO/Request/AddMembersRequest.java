@@ -0,0 +1,9 @@
+package com.vibeshare.DTO.Request;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class AddMembersRequest {
+    private List<Long> userIds;
+}
@@ -0,0 +1,23 @@
+package com.vibeshare.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationMemberResponse {
+    // cursor for the next page
+    private Long memberId;
+    private Long userId;
+    private String username;
+    private String name;
+    private String profilePic;
+    private String role;
+    private LocalDateTime joinedAt;
+}
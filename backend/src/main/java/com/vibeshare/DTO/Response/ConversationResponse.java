@@ -18,7 +18,9 @@ public class ConversationResponse {
     private Boolean isGroup = false;
     private String chatName;
     private String chatImage;
+    // both members for one-to-one chats; group members are listed via /members
     private List<UserResponse> users;
+    private Integer memberCount;
     private MessageDTO lastMessage;
     private LocalDateTime createdAt;
 }
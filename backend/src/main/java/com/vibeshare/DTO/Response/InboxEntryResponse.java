@@ -0,0 +1,28 @@
+package com.vibeshare.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxEntryResponse {
+    private Long conversationId;
+    private Boolean isGroup;
+    private String chatName;
+    private String chatImage;
+    private Long peerId;
+    private String peerUsername;
+    private String peerProfilePic;
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private String lastMessageType;
+    private LocalDateTime lastMessageTimestamp;
+    private int unreadCount;
+}
@@ -19,4 +19,6 @@ public class NotificationResponse {
     private String sourceId;
     private boolean readFlag;
     private Instant createdAt;
+    // > 1 when several actors were coalesced, actorUsername is the latest of them
+    private int aggregateCount;
 }
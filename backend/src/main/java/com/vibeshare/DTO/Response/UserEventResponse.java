@@ -0,0 +1,19 @@
+package com.vibeshare.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEventResponse {
+    private long seq;
+    private String type;
+    private Object payload;
+    private Instant createdAt;
+}
@@ -0,0 +1,19 @@
+package com.vibeshare.DTO.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserEventsSinceResponse {
+    private List<UserEventResponse> events;
+    private long latestSeq;
+    // true when events after the requested seq were already dropped; reload instead of replaying
+    private boolean resync;
+}
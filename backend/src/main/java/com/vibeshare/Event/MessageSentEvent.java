@@ -0,0 +1,22 @@
+package com.vibeshare.Event;
+
+import com.vibeshare.DTO.MessageDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published inside the writer transaction that persists the message;
+ * listeners run after commit.
+ * Recipients are snapshotted up front so delivery never touches the session.
+ */
+@Getter
+@AllArgsConstructor
+public class MessageSentEvent {
+
+    private final MessageDTO message;
+
+    // recipient user id -> email (the STOMP user name), sender excluded
+    private final Map<Long, String> recipients;
+}
@@ -3,12 +3,16 @@ package com.vibeshare.Model;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Entity
-@Table(name = "conversations")
+@Table(
+        name = "conversations",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_conversations_direct_pair",
+                columnNames = {"direct_user_low_id", "direct_user_high_id"}
+        )
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,13 +28,12 @@ public class Conversation {
     private String chatName;
     private String chatImage;
 
-    @ManyToMany
-    @JoinTable(
-            name = "conversation_users",
-            joinColumns = @JoinColumn(name = "conversation_id"),
-            inverseJoinColumns = @JoinColumn(name = "user_id")
-    )
-    private Set<User> users = new HashSet<>();
+    // canonical member pair of a one-to-one chat (min id, max id), null for groups
+    private Long directUserLowId;
+    private Long directUserHighId;
+
+    // members live in ConversationMember; kept in step with that table on join/leave
+    private Integer memberCount;
 
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Message> messages;
@@ -39,5 +42,8 @@ public class Conversation {
     private Message lastMessage;
 
     private LocalDateTime lastMessageTimestamp;
+
+    // highest Message.sequence handed out in this conversation
+    private Long lastSequence;
     private LocalDateTime createdAt = LocalDateTime.now();
 }
@@ -0,0 +1,54 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per member of a conversation. Replaces the old conversation_users
+ * join table so membership can be read by id, paged and counted without
+ * loading User entities.
+ */
+@Entity
+@Table(
+        name = "conversation_members",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_conversation_members",
+                columnNames = {"conversation_id", "user_id"}
+        ),
+        indexes = @Index(name = "idx_conversation_members_user", columnList = "user_id, conversation_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConversationMember {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Role role = Role.MEMBER;
+
+    @Builder.Default
+    private LocalDateTime joinedAt = LocalDateTime.now();
+
+    public enum Role {
+        OWNER, ADMIN, MEMBER;
+
+        public boolean canManageMembers() {
+            return this == OWNER || this == ADMIN;
+        }
+    }
+}
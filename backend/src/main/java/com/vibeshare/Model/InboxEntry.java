@@ -0,0 +1,60 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-user projection of a conversation for the chat inbox. Kept up to date
+ * on send/read so listing the inbox never touches conversations or messages.
+ */
+@Entity
+@Table(
+        name = "inbox_entries",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "conversation_id"}),
+        indexes = {
+                @Index(name = "idx_inbox_user_last_message", columnList = "user_id, last_message_timestamp"),
+                @Index(name = "idx_inbox_conversation", columnList = "conversation_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // owner of this inbox row
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    private boolean isGroup;
+    private String chatName;
+    private String chatImage;
+
+    // the other participant, for one-to-one chats only
+    private Long peerId;
+    private String peerUsername;
+    private String peerProfilePic;
+
+    private Long lastMessageId;
+    private Long lastSenderId;
+    private String lastMessagePreview;
+    private String lastMessageType;
+
+    @Column(name = "last_message_timestamp")
+    private LocalDateTime lastMessageTimestamp;
+
+    private int unreadCount;
+
+    // read watermark: every message up to this id counts as read by the owner
+    private Long lastReadMessageId;
+}
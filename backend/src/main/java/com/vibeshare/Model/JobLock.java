@@ -0,0 +1,29 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Lease on a scheduled job shared by all nodes. Whoever moves lockedUntil
+ * into the future runs the job; a node that dies mid-run only blocks the
+ * others until the lease runs out.
+ */
+@Entity
+@Table(name = "job_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobLock {
+
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Instant lockedUntil;
+
+    private String lockedBy;
+}
@@ -0,0 +1,40 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Short-lived record of a join or leave, written in the same transaction as
+ * the member row. Other nodes poll these to evict their membership caches and
+ * end subscriptions of users who left; rows are pruned after a while.
+ */
+@Entity
+@Table(
+        name = "membership_changes",
+        indexes = @Index(name = "idx_membership_changes_created", columnList = "created_at")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MembershipChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long conversationId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    // true = left or removed, false = joined
+    private boolean removed;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,7 +5,14 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(
+        name = "messages",
+        indexes = {
+                @Index(name = "idx_messages_conversation_id_id", columnList = "conversation_id, id"),
+                @Index(name = "idx_messages_timestamp", columnList = "timestamp")
+        },
+        uniqueConstraints = @UniqueConstraint(columnNames = {"conversation_id", "sequence"})
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,11 +24,11 @@ public class Message {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conversation_id")
     private Conversation conversation;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id")
     private User sender;
 
@@ -30,6 +37,9 @@ public class Message {
 
     private LocalDateTime timestamp = LocalDateTime.now();
 
+    // per-conversation order assigned by ConversationMessageWriter (null for legacy rows)
+    private Long sequence;
+
     private String attachmentUrl;
     
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,42 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.Length;
+
+/**
+ * One deflate-compressed block of consecutive archived messages of a
+ * conversation (ascending id), see MessageSegmentStore.
+ */
+@Entity
+@Table(
+        name = "message_archive_blocks",
+        indexes = @Index(name = "idx_archive_blocks_conversation_first", columnList = "conversation_id, first_message_id")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageArchiveBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "first_message_id", nullable = false)
+    private Long firstMessageId;
+
+    @Column(nullable = false)
+    private Long lastMessageId;
+
+    private int messageCount;
+
+    private int rawLength;
+
+    @Column(nullable = false, length = Length.LONG32)
+    private byte[] data;
+}
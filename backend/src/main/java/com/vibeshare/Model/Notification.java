@@ -8,7 +8,14 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "notifications")
+@Table(
+        name = "notifications",
+        indexes = {
+                @Index(name = "idx_notifications_recipient_id", columnList = "recipient_id, id"),
+                @Index(name = "idx_notifications_recipient_unread", columnList = "recipient_id, read_flag"),
+                @Index(name = "idx_notifications_read_created", columnList = "read_flag, created_at")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -38,6 +45,8 @@ public class Notification {
 
     private boolean readFlag = false;
 
+    // distinct actors folded into this row by NotificationCoalescer, null for rows older than coalescing
+    private Integer aggregateCount = 1;
 
     private Instant createdAt = Instant.now();
 }
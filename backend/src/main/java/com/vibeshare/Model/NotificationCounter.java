@@ -0,0 +1,24 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Unread notification count per user, maintained on create/read so the badge
+ * never has to count rows. Created from a COUNT before the user's first
+ * notification is stored, or on first read for users who have none yet.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCounter {
+
+    @Id
+    private Long userId;
+
+    private long unreadCount;
+}
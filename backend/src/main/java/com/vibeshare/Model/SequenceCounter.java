@@ -0,0 +1,24 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Named counter shared by all nodes. Nodes reserve blocks of values from it,
+ * so values keep growing across restarts and never depend on the clock.
+ */
+@Entity
+@Table(name = "sequence_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SequenceCounter {
+
+    @Id
+    private String name;
+
+    // Next value not reserved by any node yet
+    private long nextValue;
+}
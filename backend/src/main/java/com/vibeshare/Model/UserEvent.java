@@ -0,0 +1,43 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Shared reconnect log entry, used when several nodes push to the same user.
+ * Seqs are contiguous per user, see {@link UserEventCounter}.
+ */
+@Entity
+@Table(
+        name = "user_events",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_events_user_seq", columnNames = {"user_id", "seq"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    // JSON, as it was pushed to the client
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,23 @@
+package com.vibeshare.Model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Last seq handed out to a user. The row stays locked until the event insert
+ * commits, so a user's events become visible in seq order on every node.
+ */
+@Entity
+@Table(name = "user_event_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserEventCounter {
+
+    @Id
+    private Long userId;
+
+    private long lastSeq;
+}
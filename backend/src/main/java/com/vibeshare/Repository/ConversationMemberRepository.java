@@ -0,0 +1,100 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.ConversationMember;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ConversationMemberRepository extends JpaRepository<ConversationMember, Long> {
+
+    @Query("SELECT m.userId FROM ConversationMember m WHERE m.conversationId = :conversationId AND m.userId IN :userIds")
+    List<Long> findExistingUserIds(
+            @Param("conversationId") Long conversationId,
+            @Param("userIds") Collection<Long> userIds
+    );
+
+    @Query("SELECT m.userId FROM ConversationMember m WHERE m.conversationId = :conversationId")
+    List<Long> findUserIdsByConversationId(@Param("conversationId") Long conversationId);
+
+    @Query("SELECT m.conversationId FROM ConversationMember m WHERE m.userId = :userId")
+    List<Long> findConversationIdsByUserId(@Param("userId") Long userId);
+
+    // Fan-out recipients as (id, email) rows, no User entities
+    @Query("""
+        SELECT u.id, u.email FROM ConversationMember m JOIN User u ON u.id = m.userId
+        WHERE m.conversationId = :conversationId
+    """)
+    List<Object[]> findContactsByConversationId(@Param("conversationId") Long conversationId);
+
+    // Keyset page in join order
+    @Query("""
+        SELECT m, u FROM ConversationMember m JOIN User u ON u.id = m.userId
+        WHERE m.conversationId = :conversationId AND m.id > :afterId
+        ORDER BY m.id
+    """)
+    List<Object[]> findPageWithUsers(
+            @Param("conversationId") Long conversationId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    // Both members of each one-to-one chat, for the conversation list
+    @Query("""
+        SELECT m.conversationId, u FROM ConversationMember m JOIN User u ON u.id = m.userId
+        WHERE m.conversationId IN :conversationIds
+    """)
+    List<Object[]> findUsersByConversationIdIn(@Param("conversationIds") Collection<Long> conversationIds);
+
+    @Query("SELECT m.role FROM ConversationMember m WHERE m.conversationId = :conversationId AND m.userId = :userId")
+    Optional<ConversationMember.Role> findRole(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    @Query("""
+        SELECT COUNT(m) FROM ConversationMember m
+        WHERE m.conversationId = :conversationId
+          AND m.role IN (com.vibeshare.Model.ConversationMember.Role.OWNER, com.vibeshare.Model.ConversationMember.Role.ADMIN)
+    """)
+    long countManagers(@Param("conversationId") Long conversationId);
+
+    Optional<ConversationMember> findFirstByConversationIdOrderByIdAsc(Long conversationId);
+
+    @Modifying
+    @Query("DELETE FROM ConversationMember m WHERE m.conversationId = :conversationId AND m.userId = :userId")
+    int deleteMember(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+
+    // Members of legacy conversations, copied over from the old join table. Only conversations
+    // without any member row are copied, so someone who has since left is not added back
+    @Modifying
+    @Query(value = """
+        INSERT INTO conversation_members (conversation_id, user_id, role, joined_at)
+        SELECT cu.conversation_id, cu.user_id, 'MEMBER', c.created_at
+        FROM conversation_users cu JOIN conversations c ON c.id = cu.conversation_id
+        WHERE NOT EXISTS (
+            SELECT 1 FROM conversation_members m WHERE m.conversation_id = cu.conversation_id
+        )
+    """, nativeQuery = true)
+    int copyLegacyMembers();
+
+    // Copied groups have no owner, so their longest-standing member becomes one and can add members
+    @Modifying
+    @Query(value = """
+        UPDATE conversation_members SET role = 'OWNER'
+        WHERE id IN (
+            SELECT first_id FROM (
+                SELECT MIN(m.id) AS first_id
+                FROM conversation_members m JOIN conversations c ON c.id = m.conversation_id
+                WHERE c.is_group = true
+                GROUP BY m.conversation_id
+                HAVING SUM(CASE WHEN m.role IN ('OWNER', 'ADMIN') THEN 1 ELSE 0 END) = 0
+            ) unmanaged
+        )
+    """, nativeQuery = true)
+    int backfillOwners();
+}
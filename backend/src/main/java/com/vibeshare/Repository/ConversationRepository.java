@@ -1,8 +1,11 @@
 package com.vibeshare.Repository;
 
 import com.vibeshare.Model.Conversation;
-import com.vibeshare.Model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,9 +14,45 @@ import java.util.Optional;
 
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
 
-    @Query("SELECT c FROM Conversation c JOIN c.users u WHERE u.id = :userId ORDER BY c.lastMessageTimestamp DESC")
+    @Query("""
+        SELECT c FROM Conversation c
+        WHERE c.id IN (SELECT m.conversationId FROM ConversationMember m WHERE m.userId = :userId)
+        ORDER BY c.lastMessageTimestamp DESC
+    """)
     List<Conversation> findConversationsByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT c FROM Conversation c WHERE c.isGroup = false AND :user1 MEMBER OF c.users AND :user2 MEMBER OF c.users")
-    Optional<Conversation> findDirectConversation(@Param("user1") User user1, @Param("user2") User user2);
+    @Query("SELECT c.id FROM Conversation c WHERE c.directUserLowId = :lowId AND c.directUserHighId = :highId")
+    Optional<Long> findDirectConversationId(@Param("lowId") Long lowId, @Param("highId") Long highId);
+
+    @Query("SELECT c.id FROM Conversation c WHERE c.isGroup = false AND c.directUserLowId IS NULL ORDER BY c.id")
+    List<Long> findUnstampedDirectConversationIds();
+
+    @Query("SELECT c.id FROM Conversation c ORDER BY c.id")
+    List<Long> findAllIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Conversation c WHERE c.id = :id")
+    Optional<Conversation> findByIdForUpdate(@Param("id") Long id);
+
+    // Conversations with members that have no inbox row yet, in id order for batching
+    @Query("""
+        SELECT c.id FROM Conversation c
+        WHERE c.id > :afterId
+          AND (SELECT COUNT(m) FROM ConversationMember m WHERE m.conversationId = c.id)
+            > (SELECT COUNT(e) FROM InboxEntry e WHERE e.conversationId = c.id)
+        ORDER BY c.id
+    """)
+    List<Long> findIdsMissingInboxEntries(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Conversation c SET c.memberCount = COALESCE(c.memberCount, 0) + :delta WHERE c.id = :conversationId")
+    int adjustMemberCount(@Param("conversationId") Long conversationId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("""
+        UPDATE Conversation c
+        SET c.memberCount = (SELECT COUNT(m) FROM ConversationMember m WHERE m.conversationId = c.id)
+        WHERE c.memberCount IS NULL
+    """)
+    int backfillMemberCounts();
 }
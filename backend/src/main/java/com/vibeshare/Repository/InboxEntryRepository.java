@@ -0,0 +1,106 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.InboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, Long> {
+
+    List<InboxEntry> findByUserIdOrderByLastMessageTimestampDesc(Long userId, Pageable pageable);
+
+    @Query("SELECT e.userId FROM InboxEntry e WHERE e.conversationId = :conversationId")
+    List<Long> findUserIdsByConversationId(@Param("conversationId") Long conversationId);
+
+    // Only moves forward, so a late commit of an older message cannot overwrite a newer preview
+    @Modifying
+    @Query("""
+        UPDATE InboxEntry e
+        SET e.lastMessageId = :messageId,
+            e.lastSenderId = :senderId,
+            e.lastMessagePreview = :preview,
+            e.lastMessageType = :type,
+            e.lastMessageTimestamp = :timestamp
+        WHERE e.conversationId = :conversationId
+          AND (e.lastMessageId IS NULL OR e.lastMessageId < :messageId)
+    """)
+    int updateLastMessage(
+            @Param("conversationId") Long conversationId,
+            @Param("messageId") Long messageId,
+            @Param("senderId") Long senderId,
+            @Param("preview") String preview,
+            @Param("type") String type,
+            @Param("timestamp") LocalDateTime timestamp
+    );
+
+    @Modifying
+    @Query("""
+        UPDATE InboxEntry e SET e.unreadCount = e.unreadCount + :delta
+        WHERE e.conversationId = :conversationId AND e.userId <> :senderId
+    """)
+    int incrementUnread(
+            @Param("conversationId") Long conversationId,
+            @Param("senderId") Long senderId,
+            @Param("delta") int delta
+    );
+
+    // Conditional write: a stale or duplicate receipt never moves the watermark backwards.
+    // The unread count is taken in the same statement, under the row lock incrementUnread also needs
+    @Modifying
+    @Query("""
+        UPDATE InboxEntry e
+        SET e.lastReadMessageId = :messageId,
+            e.unreadCount = (
+                SELECT COUNT(m) FROM Message m
+                WHERE m.conversation.id = :conversationId AND m.id > :messageId AND m.sender.id <> :userId
+            )
+        WHERE e.userId = :userId AND e.conversationId = :conversationId
+          AND (e.lastReadMessageId IS NULL OR e.lastReadMessageId < :messageId)
+    """)
+    int advanceReadWatermark(
+            @Param("userId") Long userId,
+            @Param("conversationId") Long conversationId,
+            @Param("messageId") Long messageId
+    );
+
+    boolean existsByUserIdAndConversationId(Long userId, Long conversationId);
+
+    @Query("""
+        SELECT e.conversationId, e.lastReadMessageId FROM InboxEntry e
+        WHERE e.userId = :userId AND e.conversationId IN :conversationIds
+    """)
+    List<Object[]> findOwnReadWatermarks(
+            @Param("userId") Long userId,
+            @Param("conversationIds") Collection<Long> conversationIds
+    );
+
+    @Query("""
+        SELECT e.conversationId, MAX(e.lastReadMessageId) FROM InboxEntry e
+        WHERE e.userId <> :userId AND e.conversationId IN :conversationIds
+        GROUP BY e.conversationId
+    """)
+    List<Object[]> findPeerReadWatermarks(
+            @Param("userId") Long userId,
+            @Param("conversationIds") Collection<Long> conversationIds
+    );
+
+    @Modifying
+    @Query("DELETE FROM InboxEntry e WHERE e.userId = :userId AND e.conversationId = :conversationId")
+    int deleteByUserIdAndConversationId(@Param("userId") Long userId, @Param("conversationId") Long conversationId);
+
+    @Modifying
+    @Query("UPDATE InboxEntry e SET e.peerUsername = :username, e.peerProfilePic = :profilePic WHERE e.peerId = :peerId")
+    int updatePeer(
+            @Param("peerId") Long peerId,
+            @Param("username") String username,
+            @Param("profilePic") String profilePic
+    );
+}
@@ -0,0 +1,27 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Only one node can move an expired lease forward, the others update nothing
+    @Modifying
+    @Query("""
+        UPDATE JobLock l SET l.lockedUntil = :until, l.lockedBy = :owner
+        WHERE l.name = :name AND l.lockedUntil <= :now
+    """)
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") Instant now, @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+}
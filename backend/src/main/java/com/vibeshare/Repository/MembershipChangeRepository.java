@@ -0,0 +1,22 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.MembershipChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MembershipChangeRepository extends JpaRepository<MembershipChange, Long> {
+
+    @Query("SELECT c FROM MembershipChange c WHERE c.createdAt >= :since ORDER BY c.id")
+    List<MembershipChange> findSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query("DELETE FROM MembershipChange c WHERE c.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,23 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.MessageArchiveBlock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MessageArchiveBlockRepository extends JpaRepository<MessageArchiveBlock, Long> {
+
+    @Query("""
+        SELECT b FROM MessageArchiveBlock b
+        WHERE b.conversationId = :conversationId AND b.firstMessageId < :upper
+        ORDER BY b.firstMessageId DESC
+    """)
+    List<MessageArchiveBlock> findStartingBefore(
+            @Param("conversationId") Long conversationId,
+            @Param("upper") Long upper,
+            Pageable pageable
+    );
+}
@@ -1,9 +1,72 @@
 package com.vibeshare.Repository;
 
 import com.vibeshare.Model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-    List<Message> findByConversationIdOrderByTimestampAsc(Long conversationId);
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId ORDER BY m.id DESC")
+    List<Message> findLatestByConversationId(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    @Query("""
+        SELECT m FROM Message m JOIN FETCH m.sender
+        WHERE m.conversation.id = :conversationId AND m.id < :beforeId
+        ORDER BY m.id DESC
+    """)
+    List<Message> findByConversationIdBefore(
+            @Param("conversationId") Long conversationId,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // Newest message of the conversation at or below the given id, so a receipt can only name a real message
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.conversation.id = :conversationId AND m.id <= :messageId")
+    Long findLatestIdAtOrBefore(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId);
+
+    @Query("""
+        SELECT m.id, m.content FROM Message m
+        WHERE m.conversation.id = :conversationId AND m.id > :afterId AND m.content IS NOT NULL
+        ORDER BY m.id ASC
+    """)
+    List<Object[]> findContentAfter(
+            @Param("conversationId") Long conversationId,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("""
+        SELECT m.id, m.conversation.id, m.content FROM Message m
+        WHERE m.timestamp >= :since AND m.id > :afterId AND m.content IS NOT NULL
+        ORDER BY m.id ASC
+    """)
+    List<Object[]> findContentSince(
+            @Param("since") LocalDateTime since,
+            @Param("afterId") Long afterId,
+            Pageable pageable
+    );
+
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.id IN :ids")
+    List<Message> findAllWithSenderByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT m.conversation.id FROM Message m WHERE m.timestamp < :cutoff")
+    List<Long> findConversationIdsWithMessagesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("""
+        SELECT m FROM Message m
+        WHERE m.conversation.id = :conversationId AND m.timestamp < :cutoff AND m.id <> :keepId
+        ORDER BY m.id ASC
+    """)
+    List<Message> findArchivable(
+            @Param("conversationId") Long conversationId,
+            @Param("cutoff") LocalDateTime cutoff,
+            @Param("keepId") Long keepId,
+            Pageable pageable
+    );
 }
@@ -0,0 +1,24 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.NotificationCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    // No row yet means nothing to adjust, it is created from a count before the first insert.
+    // Not clamped at zero, every delta matches rows that really changed
+    @Modifying
+    @Query("UPDATE NotificationCounter c SET c.unreadCount = c.unreadCount + :delta WHERE c.userId = :userId")
+    int adjust(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Query("SELECT c.userId FROM NotificationCounter c WHERE c.userId IN :userIds")
+    List<Long> findExistingUserIds(@Param("userIds") Collection<Long> userIds);
+}
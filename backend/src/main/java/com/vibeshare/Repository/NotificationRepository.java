@@ -2,19 +2,113 @@ package com.vibeshare.Repository;
 
 import com.vibeshare.Model.Notification;
 import com.vibeshare.Model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
-    List<Notification> findByRecipientOrderByCreatedAtDesc(User recipient);
+    // Keyset page, newest first; actor fetched in the same query for the username
+    @Query("""
+        SELECT n FROM Notification n LEFT JOIN FETCH n.actor
+        WHERE n.recipient.id = :recipientId
+        ORDER BY n.id DESC
+    """)
+    List<Notification> findLatestByRecipientId(@Param("recipientId") Long recipientId, Pageable pageable);
 
-    List<Notification> findByRecipientAndReadFlagOrderByCreatedAtDesc(User recipient, boolean readFlag);
+    @Query("""
+        SELECT n FROM Notification n LEFT JOIN FETCH n.actor
+        WHERE n.recipient.id = :recipientId AND n.id < :beforeId
+        ORDER BY n.id DESC
+    """)
+    List<Notification> findByRecipientIdBefore(
+            @Param("recipientId") Long recipientId,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
 
-    List<Notification> findByRecipientAndReadFlagFalseOrderByCreatedAtDesc(User recipient);
+    @Query("""
+        SELECT n FROM Notification n LEFT JOIN FETCH n.actor
+        WHERE n.recipient.id = :recipientId AND n.readFlag = false
+        ORDER BY n.id DESC
+    """)
+    List<Notification> findUnreadByRecipientId(@Param("recipientId") Long recipientId, Pageable pageable);
 
-    List<Notification> findByRecipientAndReadFlagTrueOrderByCreatedAtDesc(User recipient);
+    @Query("SELECT COUNT(n) FROM Notification n WHERE n.recipient.id = :recipientId AND n.readFlag = false")
+    long countUnread(@Param("recipientId") Long recipientId);
+
+    @Query("SELECT n.recipient.id FROM Notification n WHERE n.id = :id")
+    Optional<Long> findRecipientId(@Param("id") Long id);
+
+    // Conditional, so a repeated read never decrements the counter twice
+    @Modifying
+    @Query("UPDATE Notification n SET n.readFlag = true WHERE n.id = :id AND n.readFlag = false")
+    int markRead(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.readFlag = true WHERE n.recipient.id = :recipientId AND n.readFlag = false")
+    int markAllRead(@Param("recipientId") Long recipientId);
+
+    /* ================= COALESCING ================= */
+
+    // Takes the row lock, so a concurrent markRead waits for the unread flip below
+    @Modifying
+    @Query("""
+        UPDATE Notification n
+        SET n.aggregateCount = :count, n.actor = :actor, n.message = :message
+        WHERE n.id = :id
+    """)
+    int updateAggregate(
+            @Param("id") Long id,
+            @Param("count") int count,
+            @Param("actor") User actor,
+            @Param("message") String message
+    );
+
+    // Conditional, so the counter is only incremented for a row that was actually read
+    @Modifying
+    @Query("UPDATE Notification n SET n.readFlag = false WHERE n.id = :id AND n.readFlag = true")
+    int markUnread(@Param("id") Long id);
+
+    /* ================= RETENTION ================= */
+
+    // Ordered by the (read_flag, created_at) index the filter uses
+    @Query("SELECT n.id FROM Notification n WHERE n.readFlag = true AND n.createdAt < :cutoff ORDER BY n.createdAt")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    @Query("SELECT n.recipient.id FROM Notification n GROUP BY n.recipient.id HAVING COUNT(n) > :cap")
+    List<Long> findRecipientIdsWithMoreThan(@Param("cap") long cap);
+
+    // Offset into the (recipient_id, id) index: the oldest id still inside the cap
+    @Query("SELECT n.id FROM Notification n WHERE n.recipient.id = :recipientId ORDER BY n.id DESC")
+    List<Long> findIdsByRecipientIdNewestFirst(@Param("recipientId") Long recipientId, Pageable pageable);
+
+    @Query("""
+        SELECT n.id FROM Notification n
+        WHERE n.recipient.id = :recipientId AND n.id < :beforeId
+        ORDER BY n.id
+    """)
+    List<Long> findIdsByRecipientIdBefore(
+            @Param("recipientId") Long recipientId,
+            @Param("beforeId") Long beforeId,
+            Pageable pageable
+    );
+
+    // The read flag is checked by the delete itself, so a row read or unread meanwhile is counted as it is removed
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.readFlag = false")
+    int deleteUnreadByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.readFlag = true")
+    int deleteReadByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,22 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.SequenceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SequenceCounterRepository extends JpaRepository<SequenceCounter, String> {
+
+    // Row-locks the counter until commit, so concurrent reservations queue up
+    @Modifying
+    @Query("UPDATE SequenceCounter c SET c.nextValue = c.nextValue + :count WHERE c.name = :name")
+    int advance(@Param("name") String name, @Param("count") long count);
+
+    @Query("SELECT c.nextValue FROM SequenceCounter c WHERE c.name = :name")
+    Optional<Long> findNextValue(@Param("name") String name);
+}
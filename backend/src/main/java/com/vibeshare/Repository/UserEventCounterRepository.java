@@ -0,0 +1,22 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.UserEventCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserEventCounterRepository extends JpaRepository<UserEventCounter, Long> {
+
+    // Row-locks the counter until commit, so appends for one user queue up
+    @Modifying
+    @Query("UPDATE UserEventCounter c SET c.lastSeq = c.lastSeq + 1 WHERE c.userId = :userId")
+    int advance(@Param("userId") Long userId);
+
+    @Query("SELECT c.lastSeq FROM UserEventCounter c WHERE c.userId = :userId")
+    Optional<Long> findLastSeq(@Param("userId") Long userId);
+}
@@ -0,0 +1,22 @@
+package com.vibeshare.Repository;
+
+import com.vibeshare.Model.UserEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserEventRepository extends JpaRepository<UserEvent, Long> {
+
+    @Query("SELECT e FROM UserEvent e WHERE e.userId = :userId AND e.seq > :seq ORDER BY e.seq")
+    List<UserEvent> findAfter(@Param("userId") Long userId, @Param("seq") long seq, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UserEvent e WHERE e.userId = :userId AND e.seq <= :seq")
+    int deleteUpTo(@Param("userId") Long userId, @Param("seq") long seq);
+}
@@ -3,6 +3,7 @@ package com.vibeshare.Repository;
 import com.vibeshare.DTO.Response.UserResponse;
 import com.vibeshare.Model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -30,6 +31,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT f.following.id FROM Follower f WHERE f.follower.id = :userId")
     List<Long> findFollowingIds(@Param("userId") Long userId);
 
+    @Query("SELECT f.follower.id, f.follower.email FROM Follower f WHERE f.following.id = :userId")
+    List<Object[]> findFollowerContacts(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT DISTINCT u.id, u.email FROM ConversationMember mine
+        JOIN ConversationMember other ON other.conversationId = mine.conversationId
+        JOIN User u ON u.id = other.userId
+        WHERE mine.userId = :userId AND other.userId <> :userId
+    """)
+    List<Object[]> findConversationPeerContacts(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.isOnline = true WHERE u.id IN :ids")
+    int markOnline(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE User u SET u.isOnline = false, u.lastSeen = :lastSeen WHERE u.id IN :ids")
+    int markOffline(@Param("ids") Collection<Long> ids, @Param("lastSeen") java.time.LocalDateTime lastSeen);
+
     @Query("""
         SELECT u FROM User u
         WHERE (
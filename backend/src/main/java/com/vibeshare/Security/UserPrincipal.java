@@ -51,6 +51,11 @@ public class UserPrincipal implements UserDetails, Serializable {
         return email;
     }
 
+    /** Public handle (User.username), getUsername() above is taken by the email */
+    public String getHandle() {
+        return username;
+    }
+
     /** Roles / authorities (add later if needed) */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -2,14 +2,24 @@ package com.vibeshare.Service;
 
 import com.vibeshare.DTO.MessageDTO;
 import com.vibeshare.DTO.Request.ChatRequest;
+import com.vibeshare.DTO.Response.ConversationMemberResponse;
 import com.vibeshare.DTO.Response.ConversationResponse;
+import com.vibeshare.DTO.Response.InboxEntryResponse;
 import java.util.List;
 
 public interface ChatService {
     ConversationResponse createOrGetConversation(ChatRequest request, Long currentUserId);
     List<ConversationResponse> getUserConversations(Long userId);
+    List<InboxEntryResponse> getInbox(Long userId, int page, int size);
+    /** The stored message, or the submitted one with pending=true if it may still commit; never retry a pending one */
     MessageDTO sendMessage(MessageDTO messageDTO, Long senderId);
-    List<MessageDTO> getConversationMessages(Long conversationId);
-    void markAsRead(Long messageId);
+    List<MessageDTO> getConversationMessages(Long conversationId, Long currentUserId, Long beforeId, int limit);
+    List<MessageDTO> searchMessages(Long userId, String query, Long conversationId, Long beforeId, int limit);
+    /** Moves the reader's watermark forward; returns the message id applied, or null if it did not move */
+    Long markConversationRead(Long conversationId, Long userId, Long lastReadMessageId);
+    List<Long> getConversationMemberIds(Long conversationId);
+    List<ConversationMemberResponse> getConversationMembers(Long conversationId, Long viewerId, Long afterId, int limit);
+    List<ConversationMemberResponse> addMembers(Long conversationId, Long actorId, List<Long> userIds);
+    void leaveConversation(Long conversationId, Long userId);
     String uploadAttachment(org.springframework.web.multipart.MultipartFile file);
 }
@@ -0,0 +1,24 @@
+package com.vibeshare.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ConversationMembershipService {
+
+    boolean isMember(Long conversationId, Long userId);
+
+    /** Throws the same error as a missing conversation, so ids of foreign conversations are not revealed */
+    void requireMember(Long conversationId, Long userId);
+
+    List<Long> getMemberIds(Long conversationId);
+
+    List<Long> getConversationIds(Long userId);
+
+    /* Cache maintenance, applied after the surrounding transaction commits */
+
+    void onCreated(Long conversationId, Collection<Long> memberIds);
+
+    void onJoined(Long conversationId, Long userId);
+
+    void onLeft(Long conversationId, Long userId);
+}
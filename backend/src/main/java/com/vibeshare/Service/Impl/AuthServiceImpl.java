@@ -10,6 +10,7 @@ import com.vibeshare.Repository.FollowerRepository;
 import com.vibeshare.Repository.PostRepository;
 import com.vibeshare.Repository.UserRepository;
 import com.vibeshare.Service.AuthService;
+import com.vibeshare.Service.MailOutboxService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,9 +19,6 @@ import java.time.LocalDateTime;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.beans.factory.annotation.Value;
 import java.util.Random;
 
 @Service
@@ -33,10 +31,7 @@ public class AuthServiceImpl implements AuthService {
     private final AuthenticationManager authenticationManager;
     private final FollowerRepository followerRepository;
     private final PostRepository postRepository;
-    private final JavaMailSender javaMailSender;
-
-    @Value("${spring.mail.username}")
-    private String senderEmail;
+    private final MailOutboxService mailOutboxService;
 
     @Override
     public String register(RegisterRequest request) {
@@ -60,21 +55,12 @@ public class AuthServiceImpl implements AuthService {
 
         userRepository.save(user);
 
-        // Send Email
-        // Send Email
-        /*
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(senderEmail);
-            message.setTo(request.getEmail());
-            message.setSubject("Verify your VibeShare Account");
-            message.setText("Your verification OTP is: " + otp + "\n\nThis OTP expires in 15 minutes.");
-            javaMailSender.send(message);
-        } catch (Exception e) {
-            System.out.println("FAILED TO SEND EMAIL (Register). OTP: " + otp);
-            System.out.println("Error: " + e.getMessage());
-        }
-        */
+        // Send Email (queued, delivered in the background)
+        mailOutboxService.enqueue(
+                request.getEmail(),
+                "Verify your VibeShare Account",
+                "Your verification OTP is: " + otp + "\n\nThis OTP expires in 15 minutes."
+        );
 
         return "OTP sent successfully";
     }
@@ -141,19 +127,12 @@ public class AuthServiceImpl implements AuthService {
             user.setVerificationTokenExpiry(LocalDateTime.now().plusMinutes(15));
             userRepository.save(user);
 
-            // Send Email
-            // Send Email
-            try {
-                SimpleMailMessage message = new SimpleMailMessage();
-                message.setFrom(senderEmail);
-                message.setTo(user.getEmail());
-                message.setSubject("Verify your VibeShare Account");
-                message.setText("Your verification OTP is: " + otp + "\n\nThis OTP expires in 15 minutes.");
-                javaMailSender.send(message);
-            } catch (Exception e) {
-                System.out.println("FAILED TO SEND EMAIL (Login). OTP: " + otp);
-                System.out.println("Error: " + e.getMessage());
-            }
+            // Send Email (queued, delivered in the background)
+            mailOutboxService.enqueue(
+                    user.getEmail(),
+                    "Verify your VibeShare Account",
+                    "Your verification OTP is: " + otp + "\n\nThis OTP expires in 15 minutes."
+            );
 
             throw new IllegalArgumentException("Account not verified. New OTP sent to email.");
         }
@@ -211,21 +190,12 @@ public class AuthServiceImpl implements AuthService {
 
         userRepository.save(user);
 
-        // Send Email
-        /*
-        try {
-            System.out.println("Sending email to: " + email + "otp:" + otp);
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(senderEmail);
-            message.setTo(email);
-            message.setSubject("Password Reset OTP - VibeShare");
-            message.setText("Your OTP for password reset is: " + otp + "\n\nThis OTP expires in 15 minutes.");
-            javaMailSender.send(message);
-        } catch (Exception e) {
-            System.out.println("FAILED TO SEND EMAIL (Forgot Password). OTP: " + otp);
-            System.out.println("Error: " + e.getMessage());
-        }
-        */
+        // Send Email (queued, delivered in the background)
+        mailOutboxService.enqueue(
+                email,
+                "Password Reset OTP - VibeShare",
+                "Your OTP for password reset is: " + otp + "\n\nThis OTP expires in 15 minutes."
+        );
     }
 
     @Override
@@ -2,170 +2,398 @@ package com.vibeshare.Service.Impl;
 
 import com.vibeshare.DTO.MessageDTO;
 import com.vibeshare.DTO.Request.ChatRequest;
+import com.vibeshare.DTO.Response.ConversationMemberResponse;
 import com.vibeshare.DTO.Response.ConversationResponse;
+import com.vibeshare.DTO.Response.InboxEntryResponse;
 import com.vibeshare.DTO.Response.UserResponse;
 import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.ConversationMember;
+import com.vibeshare.Model.InboxEntry;
 import com.vibeshare.Model.Message;
 import com.vibeshare.Model.User;
+import com.vibeshare.Repository.ConversationMemberRepository;
 import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.InboxEntryRepository;
 import com.vibeshare.Repository.MessageRepository;
 import com.vibeshare.Repository.UserRepository;
 import com.vibeshare.Service.ChatService;
 import com.vibeshare.Service.CloudinaryService;
-import com.vibeshare.Service.NotificationService;
-import com.vibeshare.DTO.Request.CreateNotificationRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Service.MessageArchiveService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class ChatServiceImpl implements ChatService {
 
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+    private static final int MAX_INBOX_PAGE_SIZE = 50;
+    private static final int MAX_MEMBER_PAGE_SIZE = 200;
+
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
+    private final InboxEntryRepository inboxEntryRepository;
+    private final ConversationMemberRepository memberRepository;
     private final UserRepository userRepository;
     private final CloudinaryService cloudinaryService;
-    private final NotificationService notificationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final InboxProjection inboxProjection;
+    private final ConversationMessageWriter conversationMessageWriter;
+    private final DirectConversationIndex directConversationIndex;
+    private final MessageSearchIndex messageSearchIndex;
+    private final MessageArchiveService messageArchiveService;
+    private final ConversationMembershipService membershipService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${chat.writer.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
 
     @Override
-    @Transactional
     public ConversationResponse createOrGetConversation(ChatRequest request, Long currentUserId) {
-        User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
         if (request.getIsGroup() == null || !request.getIsGroup()) {
             if (request.getRecipientId() == null) {
                 throw new RuntimeException("Recipient ID must not be null for one-to-one chat");
             }
-            User otherUser = userRepository.findById(request.getRecipientId())
-                    .orElseThrow(() -> new RuntimeException("Recipient not found"));
+            Long recipientId = request.getRecipientId();
 
-            // Use the direct query first
-            Optional<Conversation> existing = conversationRepository.findDirectConversation(currentUser, otherUser);
-            if (existing.isPresent()) {
-                return mapToConversationResponse(existing.get());
+            Optional<Long> existingId = directConversationIndex.find(currentUserId, recipientId);
+            if (existingId.isPresent()) {
+                return openConversation(existingId.get(), currentUserId);
             }
 
-            // Fallback manual check
-            List<Conversation> conversations = conversationRepository.findConversationsByUserId(currentUser.getId());
-            for (Conversation conv : conversations) {
-                if (!conv.isGroup() && conv.getUsers().size() == 2 && conv.getUsers().contains(otherUser)) {
-                    return mapToConversationResponse(conv);
-                }
+            try {
+                Conversation conversation = transactionTemplate.execute(status -> {
+                    if (!userRepository.existsById(recipientId)) {
+                        throw new RuntimeException("Recipient not found");
+                    }
+                    Set<Long> memberIds = new LinkedHashSet<>(List.of(currentUserId, recipientId));
+                    Conversation created = Conversation.builder()
+                            .isGroup(false)
+                            .memberCount(memberIds.size())
+                            .createdAt(LocalDateTime.now())
+                            .build();
+                    DirectConversationIndex.stamp(created, currentUserId, recipientId);
+                    created = conversationRepository.saveAndFlush(created);
+                    addMemberRows(created, memberIds, null);
+                    inboxProjection.ensureEntries(created);
+                    membershipService.onCreated(created.getId(), memberIds);
+                    return created;
+                });
+                directConversationIndex.remember(conversation);
+                return mapToConversationResponse(conversation, currentUserId);
+            } catch (DataIntegrityViolationException e) {
+                // Lost the race against a concurrent create for the same pair, use the winner
+                Long winnerId = directConversationIndex.find(currentUserId, recipientId)
+                        .orElseThrow(() -> e);
+                return openConversation(winnerId, currentUserId);
             }
-
-            // Create new
-            Set<User> users = new HashSet<>();
-            users.add(currentUser);
-            users.add(otherUser);
-            Conversation conversation = Conversation.builder()
-                    .users(users)
-                    .isGroup(false)
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            return mapToConversationResponse(conversationRepository.save(conversation));
         } else {
             // Group chat logic
             if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
                 throw new RuntimeException("User IDs must not be empty for group chat");
             }
-            Set<User> users = request.getUserIds().stream()
-                    .map(id -> userRepository.findById(id).orElseThrow(() -> new RuntimeException("User not found")))
-                    .collect(Collectors.toSet());
-            users.add(currentUser);
+            Conversation conversation = transactionTemplate.execute(status -> {
+                Set<Long> memberIds = new LinkedHashSet<>();
+                memberIds.add(currentUserId);
+                memberIds.addAll(request.getUserIds());
+                if (userRepository.findAllById(memberIds).size() != memberIds.size()) {
+                    throw new RuntimeException("User not found");
+                }
 
-            Conversation conversation = Conversation.builder()
-                    .users(users)
-                    .isGroup(true)
-                    .chatName(request.getChatName())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            return mapToConversationResponse(conversationRepository.save(conversation));
+                Conversation created = Conversation.builder()
+                        .isGroup(true)
+                        .chatName(request.getChatName())
+                        .memberCount(memberIds.size())
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                created = conversationRepository.save(created);
+                addMemberRows(created, memberIds, currentUserId);
+                inboxProjection.ensureEntries(created);
+                membershipService.onCreated(created.getId(), memberIds);
+                return created;
+            });
+            return mapToConversationResponse(conversation, currentUserId);
         }
     }
 
+    // The owner, if any, gets OWNER, everyone else MEMBER
+    private List<ConversationMember> addMemberRows(Conversation conversation, Collection<Long> userIds, Long ownerId) {
+        LocalDateTime now = LocalDateTime.now();
+        return memberRepository.saveAll(userIds.stream()
+                .map(userId -> ConversationMember.builder()
+                        .conversationId(conversation.getId())
+                        .userId(userId)
+                        .role(userId.equals(ownerId) ? ConversationMember.Role.OWNER : ConversationMember.Role.MEMBER)
+                        .joinedAt(now)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private ConversationResponse openConversation(Long conversationId, Long currentUserId) {
+        Conversation conversation = transactionTemplate.execute(status -> {
+            Conversation existing = conversationRepository.findById(conversationId)
+                    .orElseThrow(() -> new RuntimeException("Conversation not found"));
+            inboxProjection.ensureEntries(existing);
+            return existing;
+        });
+        return mapToConversationResponse(conversation, currentUserId);
+    }
+
     @Override
     public List<ConversationResponse> getUserConversations(Long userId) {
-        return conversationRepository.findConversationsByUserId(userId).stream()
-                .map(this::mapToConversationResponse)
+        List<Conversation> conversations = conversationRepository.findConversationsByUserId(userId);
+        ReadWatermarks watermarks = loadReadWatermarks(userId,
+                conversations.stream().map(Conversation::getId).collect(Collectors.toList()));
+        Map<Long, List<User>> directMembers = loadDirectMembers(conversations);
+
+        return conversations.stream()
+                .map(conversation -> mapToConversationResponse(conversation, userId, watermarks, directMembers))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<InboxEntryResponse> getInbox(Long userId, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE)));
+        return inboxEntryRepository.findByUserIdOrderByLastMessageTimestampDesc(userId, pageable).stream()
+                .map(this::mapToInboxEntryResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
     public MessageDTO sendMessage(MessageDTO messageDTO, Long senderId) {
-        Conversation conversation = conversationRepository.findById(messageDTO.getConversationId())
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Message message = Message.builder()
-                .conversation(conversation)
-                .sender(sender)
-                .content(messageDTO.getContent())
-                .attachmentUrl(messageDTO.getAttachmentUrl())
-                .timestamp(LocalDateTime.now())
-                .type(messageDTO.getType() != null ? messageDTO.getType() : Message.MessageType.TEXT)
-                .isRead(false)
-                .build();
+        if (messageDTO.getConversationId() == null) {
+            throw new IllegalArgumentException("Conversation ID must not be null");
+        }
+        membershipService.requireMember(messageDTO.getConversationId(), senderId);
 
-        message = messageRepository.save(message);
-
-        conversation.setLastMessage(message);
-        conversation.setLastMessageTimestamp(message.getTimestamp());
-        conversationRepository.save(conversation);
-
-        // Send Notification to other users in conversation
-        final Message savedMsg = message;
-        conversation.getUsers().stream()
-                .filter(user -> !user.getId().equals(senderId))
-                .forEach(recipient -> {
-                    CreateNotificationRequest notificationRequest = new CreateNotificationRequest();
-                    notificationRequest.setRecipientId(recipient.getId());
-                    notificationRequest.setActorId(senderId);
-                    notificationRequest.setType("MESSAGE");
-                    notificationRequest.setMessage("sent you a message");
-                    notificationRequest.setSourceId(savedMsg.getConversation().getId().toString());
-                    notificationService.createAndSend(notificationRequest);
-                    
-                    // Send real-time message to user-specific queue (for Global Toasts)
-                    // The client subscribes to /user/queue/messages
-                    messagingTemplate.convertAndSendToUser(
-                        recipient.getEmail(), 
-                        "/queue/messages", 
-                        mapToMessageDTO(savedMsg)
-                    );
-                });
+        // Persisted by the conversation's writer stripe, ordered and group-committed
+        CompletableFuture<MessageDTO> result = conversationMessageWriter.submit(messageDTO, senderId);
+        try {
+            return awaitWrite(result);
+        } catch (TimeoutException e) {
+            // Still queued: withdraw it, so a retry by the client cannot create a duplicate
+            if (result.cancel(false)) {
+                throw new RuntimeException("Timed out sending message");
+            }
+        }
+        // Already picked up by the stripe, the commit is in progress
+        try {
+            return awaitWrite(result);
+        } catch (TimeoutException e) {
+            // It may still commit, so this is not a failure the client should retry
+            log.warn("Message to conversation {} still committing after {} ms", messageDTO.getConversationId(), 2 * sendTimeoutMs);
+            messageDTO.setSenderId(senderId);
+            messageDTO.setPending(true);
+            return messageDTO;
+        }
+    }
 
-        return mapToMessageDTO(message);
+    private MessageDTO awaitWrite(CompletableFuture<MessageDTO> result) throws TimeoutException {
+        try {
+            return result.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause
+                    ? cause
+                    : new RuntimeException("Failed to send message", e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending message");
+        }
     }
 
     @Override
-    public List<MessageDTO> getConversationMessages(Long conversationId) {
-        return messageRepository.findByConversationIdOrderByTimestampAsc(conversationId).stream()
-                .map(this::mapToMessageDTO)
+    public List<MessageDTO> getConversationMessages(Long conversationId, Long currentUserId, Long beforeId, int limit) {
+        membershipService.requireMember(conversationId, currentUserId);
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_MESSAGE_PAGE_SIZE)));
+
+        // Keyset page, newest first, then flipped so the client still gets ascending order
+        List<Message> messages = beforeId == null
+                ? messageRepository.findLatestByConversationId(conversationId, page)
+                : messageRepository.findByConversationIdBefore(conversationId, beforeId, page);
+
+        ReadWatermarks watermarks = loadReadWatermarks(currentUserId, List.of(conversationId));
+        List<MessageDTO> result = messages.stream()
+                .map(message -> mapToMessageDTO(message, isReadBy(message, currentUserId, watermarks)))
+                .collect(Collectors.toList());
+
+        // Scrolled past the hot table, continue in the archive
+        int missing = page.getPageSize() - messages.size();
+        if (missing > 0) {
+            Long archiveBefore = messages.isEmpty() ? beforeId : messages.get(messages.size() - 1).getId();
+            messageArchiveService.readBefore(conversationId, archiveBefore, missing).forEach(archived -> {
+                archived.setIsRead(isReadBy(archived.getId(), archived.getSenderId(), conversationId,
+                        Boolean.TRUE.equals(archived.getIsRead()), currentUserId, watermarks));
+                result.add(archived);
+            });
+        }
+
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public List<MessageDTO> searchMessages(Long userId, String query, Long conversationId, Long beforeId, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        // Only conversations the user belongs to are searched
+        List<Long> scope;
+        if (conversationId != null) {
+            membershipService.requireMember(conversationId, userId);
+            scope = List.of(conversationId);
+        } else {
+            scope = membershipService.getConversationIds(userId);
+        }
+
+        List<Long> ids = messageSearchIndex.search(scope, query, beforeId,
+                Math.max(1, Math.min(limit, MAX_MESSAGE_PAGE_SIZE)));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Message> byId = messageRepository.findAllWithSenderByIdIn(ids).stream()
+                .collect(Collectors.toMap(Message::getId, message -> message));
+        if (byId.size() < ids.size()) {
+            // Archived since they were indexed, possibly by another node
+            messageSearchIndex.remove(scope, ids.stream().filter(id -> !byId.containsKey(id)).toList());
+        }
+        ReadWatermarks watermarks = loadReadWatermarks(userId, scope);
+
+        // Newest first, as ranked by the index
+        return ids.stream()
+                .map(byId::get)
+                .filter(message -> message != null)
+                .map(message -> mapToMessageDTO(message, isReadBy(message, userId, watermarks)))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
-    public void markAsRead(Long messageId) {
-        Message message = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
-        message.setRead(true);
-        messageRepository.save(message);
+    public Long markConversationRead(Long conversationId, Long userId, Long lastReadMessageId) {
+        membershipService.requireMember(conversationId, userId);
+        // Clamp to a message that exists in this conversation, never past its newest
+        Long watermark = lastReadMessageId == null
+                ? null
+                : messageRepository.findLatestIdAtOrBefore(conversationId, lastReadMessageId);
+        if (watermark == null) {
+            return null;
+        }
+
+        if (!inboxEntryRepository.existsByUserIdAndConversationId(userId, conversationId)) {
+            conversationRepository.findById(conversationId).ifPresent(inboxProjection::ensureEntries);
+        }
+        return inboxEntryRepository.advanceReadWatermark(userId, conversationId, watermark) > 0 ? watermark : null;
+    }
+
+    @Override
+    public List<Long> getConversationMemberIds(Long conversationId) {
+        return membershipService.getMemberIds(conversationId);
+    }
+
+    /* ================= MEMBERS ================= */
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ConversationMemberResponse> getConversationMembers(Long conversationId, Long viewerId, Long afterId, int limit) {
+        membershipService.requireMember(conversationId, viewerId);
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_MEMBER_PAGE_SIZE)));
+        return memberRepository.findPageWithUsers(conversationId, afterId != null ? afterId : 0L, page).stream()
+                .map(row -> mapToMemberResponse((ConversationMember) row[0], (User) row[1]))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ConversationMemberResponse> addMembers(Long conversationId, Long actorId, List<Long> userIds) {
+        membershipService.requireMember(conversationId, actorId);
+        if (userIds == null || userIds.isEmpty()) {
+            return List.of();
+        }
+
+        return transactionTemplate.execute(status -> {
+            Conversation conversation = conversationRepository.findById(conversationId)
+                    .orElseThrow(() -> new RuntimeException("Conversation not found"));
+            if (!conversation.isGroup()) {
+                throw new IllegalArgumentException("Members can only be added to group chats");
+            }
+            boolean canManage = memberRepository.findRole(conversationId, actorId)
+                    .map(ConversationMember.Role::canManageMembers)
+                    .orElse(false);
+            if (!canManage) {
+                throw new IllegalArgumentException("Only the owner or an admin can add members");
+            }
+
+            Set<Long> requested = new LinkedHashSet<>(userIds);
+            List<User> users = userRepository.findAllById(requested);
+            if (users.size() != requested.size()) {
+                throw new RuntimeException("User not found");
+            }
+            Set<Long> existing = new HashSet<>(memberRepository.findExistingUserIds(conversationId, requested));
+            Map<Long, User> added = users.stream()
+                    .filter(user -> !existing.contains(user.getId()))
+                    .collect(Collectors.toMap(User::getId, user -> user));
+            if (added.isEmpty()) {
+                return List.<ConversationMemberResponse>of();
+            }
+
+            List<ConversationMember> rows = addMemberRows(conversation, added.keySet(), null);
+            conversationRepository.adjustMemberCount(conversationId, rows.size());
+            inboxProjection.ensureEntries(conversation);
+            added.keySet().forEach(userId -> membershipService.onJoined(conversationId, userId));
+
+            return rows.stream()
+                    .map(member -> mapToMemberResponse(member, added.get(member.getUserId())))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public void leaveConversation(Long conversationId, Long userId) {
+        membershipService.requireMember(conversationId, userId);
+        transactionTemplate.executeWithoutResult(status -> {
+            Conversation conversation = conversationRepository.findById(conversationId)
+                    .orElseThrow(() -> new RuntimeException("Conversation not found"));
+            if (!conversation.isGroup()) {
+                throw new IllegalArgumentException("Cannot leave a one-to-one chat");
+            }
+            if (memberRepository.deleteMember(conversationId, userId) > 0) {
+                conversationRepository.adjustMemberCount(conversationId, -1);
+                inboxEntryRepository.deleteByUserIdAndConversationId(userId, conversationId);
+                // The last owner or admin hands the group to its longest-standing member
+                if (memberRepository.countManagers(conversationId) == 0) {
+                    memberRepository.findFirstByConversationIdOrderByIdAsc(conversationId)
+                            .ifPresent(member -> member.setRole(ConversationMember.Role.OWNER));
+                }
+                membershipService.onLeft(conversationId, userId);
+            }
+        });
     }
 
     @Override
@@ -173,19 +401,98 @@ public class ChatServiceImpl implements ChatService {
         return cloudinaryService.uploadFile(file);
     }
 
-    private ConversationResponse mapToConversationResponse(Conversation conversation) {
+    private InboxEntryResponse mapToInboxEntryResponse(InboxEntry entry) {
+        return InboxEntryResponse.builder()
+                .conversationId(entry.getConversationId())
+                .isGroup(entry.isGroup())
+                .chatName(entry.getChatName())
+                .chatImage(entry.getChatImage())
+                .peerId(entry.getPeerId())
+                .peerUsername(entry.getPeerUsername())
+                .peerProfilePic(entry.getPeerProfilePic())
+                .lastMessageId(entry.getLastMessageId())
+                .lastSenderId(entry.getLastSenderId())
+                .lastMessagePreview(entry.getLastMessagePreview())
+                .lastMessageType(entry.getLastMessageType())
+                .lastMessageTimestamp(entry.getLastMessageTimestamp())
+                .unreadCount(entry.getUnreadCount())
+                .build();
+    }
+
+    /* ================= READ WATERMARKS ================= */
+
+    private ReadWatermarks loadReadWatermarks(Long viewerId, List<Long> conversationIds) {
+        ReadWatermarks watermarks = new ReadWatermarks();
+        if (conversationIds.isEmpty()) {
+            return watermarks;
+        }
+        inboxEntryRepository.findOwnReadWatermarks(viewerId, conversationIds)
+                .forEach(row -> watermarks.own.put((Long) row[0], (Long) row[1]));
+        inboxEntryRepository.findPeerReadWatermarks(viewerId, conversationIds)
+                .forEach(row -> watermarks.peers.put((Long) row[0], (Long) row[1]));
+        return watermarks;
+    }
+
+    // Own messages are read once any peer's watermark passes them; others' once the viewer's does
+    private boolean isReadBy(Message message, Long viewerId, ReadWatermarks watermarks) {
+        return isReadBy(message.getId(), message.getSender().getId(), message.getConversation().getId(),
+                message.isRead(), viewerId, watermarks);
+    }
+
+    private boolean isReadBy(Long messageId, Long senderId, Long conversationId, boolean legacyRead,
+                             Long viewerId, ReadWatermarks watermarks) {
+        if (legacyRead) {
+            return true;
+        }
+        Long watermark = senderId.equals(viewerId)
+                ? watermarks.peers.get(conversationId)
+                : watermarks.own.get(conversationId);
+        return watermark != null && messageId <= watermark;
+    }
+
+    private static class ReadWatermarks {
+        private final Map<Long, Long> own = new HashMap<>();
+        private final Map<Long, Long> peers = new HashMap<>();
+    }
+
+    // Both members of every one-to-one chat in one query; group members are paged separately
+    private Map<Long, List<User>> loadDirectMembers(List<Conversation> conversations) {
+        List<Long> directIds = conversations.stream()
+                .filter(conversation -> !conversation.isGroup())
+                .map(Conversation::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<User>> members = new HashMap<>();
+        if (!directIds.isEmpty()) {
+            memberRepository.findUsersByConversationIdIn(directIds).forEach(row ->
+                    members.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((User) row[1]));
+        }
+        return members;
+    }
+
+    private ConversationResponse mapToConversationResponse(Conversation conversation, Long viewerId) {
+        return mapToConversationResponse(conversation, viewerId,
+                loadReadWatermarks(viewerId, List.of(conversation.getId())),
+                loadDirectMembers(List.of(conversation)));
+    }
+
+    private ConversationResponse mapToConversationResponse(Conversation conversation, Long viewerId,
+                                                           ReadWatermarks watermarks, Map<Long, List<User>> directMembers) {
+        Message lastMessage = conversation.getLastMessage();
         return ConversationResponse.builder()
                 .id(conversation.getId())
                 .isGroup(conversation.isGroup())
                 .chatName(conversation.getChatName())
                 .chatImage(conversation.getChatImage())
-                .users(conversation.getUsers().stream().map(this::mapToUserResponse).collect(Collectors.toList()))
-                .lastMessage(conversation.getLastMessage() != null ? mapToMessageDTO(conversation.getLastMessage()) : null)
+                .users(directMembers.getOrDefault(conversation.getId(), List.of()).stream()
+                        .map(this::mapToUserResponse)
+                        .collect(Collectors.toList()))
+                .memberCount(conversation.getMemberCount())
+                .lastMessage(lastMessage != null ? mapToMessageDTO(lastMessage, isReadBy(lastMessage, viewerId, watermarks)) : null)
                 .createdAt(conversation.getCreatedAt())
                 .build();
     }
 
-    private MessageDTO mapToMessageDTO(Message message) {
+    private MessageDTO mapToMessageDTO(Message message, boolean isRead) {
         return MessageDTO.builder()
                 .id(message.getId())
                 .conversationId(message.getConversation().getId())
@@ -194,8 +501,21 @@ public class ChatServiceImpl implements ChatService {
                 .content(message.getContent())
                 .attachmentUrl(message.getAttachmentUrl())
                 .timestamp(message.getTimestamp())
+                .sequence(message.getSequence())
                 .type(message.getType())
-                .isRead(message.isRead())
+                .isRead(isRead)
+                .build();
+    }
+
+    private ConversationMemberResponse mapToMemberResponse(ConversationMember member, User user) {
+        return ConversationMemberResponse.builder()
+                .memberId(member.getId())
+                .userId(user.getId())
+                .username(user.getUsername())
+                .name(user.getName())
+                .profilePic(user.getProfilePic())
+                .role(member.getRole().name())
+                .joinedAt(member.getJoinedAt())
                 .build();
     }
 
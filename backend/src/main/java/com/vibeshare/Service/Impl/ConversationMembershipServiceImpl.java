@@ -0,0 +1,328 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Config.ConversationSubscriptions;
+import com.vibeshare.Model.MembershipChange;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MembershipChangeRepository;
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Membership index in both directions, conversation to member ids and user to
+ * conversation ids, each kept as a sorted long[] so a check is a binary search
+ * without reading the member table.
+ * <p>
+ * Cached arrays are never modified in place; create/join/leave swap in a copy.
+ * A load that raced with such a change is returned but not cached.
+ * <p>
+ * A leave also ends the user's subscriptions to the conversation's topics. In
+ * relay mode every change is recorded in membership_changes and the other
+ * nodes poll it to do the same, instead of serving stale entries until the ttl.
+ */
+@Service
+@Slf4j
+public class ConversationMembershipServiceImpl implements ConversationMembershipService {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMemberRepository memberRepository;
+    private final MembershipChangeRepository changeRepository;
+    private final ConversationSubscriptions subscriptions;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedCache<Long, long[]> membersByConversation;
+    private final BoundedCache<Long, long[]> conversationsByUser;
+    // Ids of changes already applied here, so the overlap window is not applied twice
+    private final BoundedCache<Long, Boolean> appliedChanges;
+    private final AtomicLong mutations = new AtomicLong();
+    private final boolean relay;
+    private final long syncOverlapMs;
+    private final long changeRetentionMs;
+    private volatile LocalDateTime syncedTo;
+
+    public ConversationMembershipServiceImpl(
+            ConversationRepository conversationRepository,
+            ConversationMemberRepository memberRepository,
+            MembershipChangeRepository changeRepository,
+            ConversationSubscriptions subscriptions,
+            TransactionTemplate transactionTemplate,
+            @Value("${chat.membership.cache-size:50000}") int cacheSize,
+            @Value("${chat.membership.ttl-ms:60000}") long ttlMs,
+            @Value("${chat.broker.mode:simple}") String brokerMode,
+            @Value("${chat.membership.sync-overlap-ms:30000}") long syncOverlapMs,
+            @Value("${chat.membership.change-retention-ms:3600000}") long changeRetentionMs
+    ) {
+        this.conversationRepository = conversationRepository;
+        this.memberRepository = memberRepository;
+        this.changeRepository = changeRepository;
+        this.subscriptions = subscriptions;
+        this.transactionTemplate = transactionTemplate;
+        // The ttl only bounds how long an entry missed by the sync can stay wrong
+        this.membersByConversation = new BoundedCache<>(cacheSize, ttlMs);
+        this.conversationsByUser = new BoundedCache<>(cacheSize, ttlMs);
+        this.appliedChanges = new BoundedCache<>(cacheSize, syncOverlapMs * 2);
+        this.relay = "relay".equalsIgnoreCase(brokerMode);
+        this.syncOverlapMs = syncOverlapMs;
+        this.changeRetentionMs = changeRetentionMs;
+    }
+
+    @Override
+    public boolean isMember(Long conversationId, Long userId) {
+        if (conversationId == null || userId == null) {
+            return false;
+        }
+        return Arrays.binarySearch(members(conversationId), userId) >= 0;
+    }
+
+    @Override
+    public void requireMember(Long conversationId, Long userId) {
+        if (!isMember(conversationId, userId)) {
+            throw new RuntimeException("Conversation not found");
+        }
+    }
+
+    @Override
+    public List<Long> getMemberIds(Long conversationId) {
+        return Arrays.stream(members(conversationId)).boxed().toList();
+    }
+
+    @Override
+    public List<Long> getConversationIds(Long userId) {
+        return Arrays.stream(conversations(userId)).boxed().toList();
+    }
+
+    /* ================= LOADING ================= */
+
+    private long[] members(Long conversationId) {
+        long[] cached = membersByConversation.get(conversationId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = mutations.get();
+        long[] loaded = toSortedArray(memberRepository.findUserIdsByConversationId(conversationId));
+        if (mutations.get() == version) {
+            membersByConversation.put(conversationId, loaded);
+        }
+        return loaded;
+    }
+
+    private long[] conversations(Long userId) {
+        long[] cached = conversationsByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long version = mutations.get();
+        long[] loaded = toSortedArray(memberRepository.findConversationIdsByUserId(userId));
+        if (mutations.get() == version) {
+            conversationsByUser.put(userId, loaded);
+        }
+        return loaded;
+    }
+
+    /* ================= MAINTENANCE ================= */
+
+    @Override
+    public void onCreated(Long conversationId, Collection<Long> memberIds) {
+        long[] members = toSortedArray(memberIds);
+        for (long memberId : members) {
+            record(conversationId, memberId, false);
+        }
+        afterCommit(() -> {
+            synchronized (this) {
+                mutations.incrementAndGet();
+                membersByConversation.put(conversationId, members);
+                for (long memberId : members) {
+                    addToUser(memberId, conversationId);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onJoined(Long conversationId, Long userId) {
+        record(conversationId, userId, false);
+        afterCommit(() -> {
+            synchronized (this) {
+                mutations.incrementAndGet();
+                long[] cached = membersByConversation.get(conversationId);
+                if (cached != null) {
+                    membersByConversation.put(conversationId, with(cached, userId));
+                }
+                addToUser(userId, conversationId);
+            }
+        });
+    }
+
+    @Override
+    public void onLeft(Long conversationId, Long userId) {
+        record(conversationId, userId, true);
+        afterCommit(() -> {
+            synchronized (this) {
+                mutations.incrementAndGet();
+                long[] cached = membersByConversation.get(conversationId);
+                if (cached != null) {
+                    membersByConversation.put(conversationId, without(cached, userId));
+                }
+                long[] conversations = conversationsByUser.get(userId);
+                if (conversations != null) {
+                    conversationsByUser.put(userId, without(conversations, conversationId));
+                }
+            }
+            subscriptions.end(conversationId, userId);
+        });
+    }
+
+    private void addToUser(long userId, long conversationId) {
+        long[] cached = conversationsByUser.get(userId);
+        if (cached != null) {
+            conversationsByUser.put(userId, with(cached, conversationId));
+        }
+    }
+
+    // Written in the caller's transaction, so other nodes only see committed changes
+    private void record(Long conversationId, Long userId, boolean removed) {
+        if (!relay) {
+            return;
+        }
+        MembershipChange change = changeRepository.save(MembershipChange.builder()
+                .conversationId(conversationId)
+                .userId(userId)
+                .removed(removed)
+                .createdAt(LocalDateTime.now())
+                .build());
+        appliedChanges.put(change.getId(), Boolean.TRUE);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /* ================= SYNC ================= */
+
+    /**
+     * Relay mode only: drops cached entries touched by changes made on other
+     * nodes and ends the subscriptions held here by users who left. Rows are
+     * re-read for an overlap window, as ids commit out of order.
+     */
+    @Scheduled(fixedDelayString = "${chat.membership.sync-interval-ms:2000}")
+    public void syncChanges() {
+        if (!relay) {
+            return;
+        }
+        LocalDateTime scanStarted = LocalDateTime.now();
+        LocalDateTime since = (syncedTo != null ? syncedTo : scanStarted).minus(Duration.ofMillis(syncOverlapMs));
+
+        for (MembershipChange change : changeRepository.findSince(since)) {
+            if (appliedChanges.get(change.getId()) != null) {
+                continue;
+            }
+            appliedChanges.put(change.getId(), Boolean.TRUE);
+            synchronized (this) {
+                mutations.incrementAndGet();
+                membersByConversation.remove(change.getConversationId());
+                conversationsByUser.remove(change.getUserId());
+            }
+            // A user who already rejoined keeps the subscriptions made since
+            if (change.isRemoved() && !isMember(change.getConversationId(), change.getUserId())) {
+                subscriptions.end(change.getConversationId(), change.getUserId());
+            }
+        }
+        syncedTo = scanStarted;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.membership.prune-interval-ms:600000}")
+    public void pruneChanges() {
+        if (!relay) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(changeRetentionMs));
+        transactionTemplate.execute(status -> changeRepository.deleteOlderThan(cutoff));
+    }
+
+    /* ================= BACKFILL ================= */
+
+    // Runs before the other startup backfills, which read membership from the member table
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void backfillLegacyMembers() {
+        try {
+            Integer copied = transactionTemplate.execute(status -> memberRepository.copyLegacyMembers());
+            if (copied != null && copied > 0) {
+                log.info("Copied {} members from conversation_users", copied);
+            }
+        } catch (Exception e) {
+            // Databases created after the member table have no conversation_users to copy from
+            log.debug("No legacy conversation_users to copy: {}", e.getMessage());
+        }
+
+        Integer owners = transactionTemplate.execute(status -> memberRepository.backfillOwners());
+        if (owners != null && owners > 0) {
+            log.info("Made the first member owner of {} groups without one", owners);
+        }
+
+        Integer counted = transactionTemplate.execute(status -> conversationRepository.backfillMemberCounts());
+        if (counted != null && counted > 0) {
+            log.info("Backfilled member count on {} conversations", counted);
+        }
+    }
+
+    /* ================= SORTED ARRAYS ================= */
+
+    private static long[] toSortedArray(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return EMPTY;
+        }
+        return ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    private static long[] with(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index >= 0) {
+            return sorted;
+        }
+        int insertAt = -index - 1;
+        long[] copy = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, copy, 0, insertAt);
+        copy[insertAt] = value;
+        System.arraycopy(sorted, insertAt, copy, insertAt + 1, sorted.length - insertAt);
+        return copy;
+    }
+
+    private static long[] without(long[] sorted, long value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return sorted;
+        }
+        long[] copy = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, copy, 0, index);
+        System.arraycopy(sorted, index + 1, copy, index, sorted.length - index - 1);
+        return copy;
+    }
+}
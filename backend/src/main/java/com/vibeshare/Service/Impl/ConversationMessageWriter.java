@@ -0,0 +1,251 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.Event.MessageSentEvent;
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.Message;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MessageRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserDirectoryService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single-writer message persistence, striped by conversation id.
+ * <p>
+ * Every conversation hashes to one stripe, and each stripe has one thread, so
+ * messages of a conversation are written strictly in submission order on this
+ * node. The conversation row is locked for the write, so nodes sharing the
+ * database take turns and the per-conversation sequence stays gap-free and
+ * unique across them. Whatever has queued up on a
+ * stripe while the previous commit ran is written in one transaction, with a
+ * single lastMessage update per conversation.
+ * <p>
+ * Each stripe queue is bounded; when it is full submit() fails right away.
+ * A pending message can be cancelled until its stripe picks it up, so a
+ * caller that gave up waiting never has the message commit behind its back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationMessageWriter {
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMemberRepository memberRepository;
+    private final MessageRepository messageRepository;
+    private final UserRepository userRepository;
+    private final InboxProjection inboxProjection;
+    private final UserDirectoryService userDirectoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${chat.writer.stripes:8}")
+    private int stripeCount;
+
+    @Value("${chat.writer.max-batch:64}")
+    private int maxBatch;
+
+    @Value("${chat.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final List<Stripe> stripes = new ArrayList<>();
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < stripeCount; i++) {
+            Stripe stripe = new Stripe(i);
+            stripes.add(stripe);
+            stripe.thread.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stripes.forEach(stripe -> stripe.thread.interrupt());
+    }
+
+    /**
+     * Queues the message on its conversation's stripe. Cancelling the returned
+     * future succeeds only while the message is still queued.
+     */
+    public CompletableFuture<MessageDTO> submit(MessageDTO messageDTO, Long senderId) {
+        PendingMessage pending = new PendingMessage(messageDTO, senderId, LocalDateTime.now());
+        Stripe stripe = stripes.get(Math.floorMod(Long.hashCode(messageDTO.getConversationId()), stripes.size()));
+        if (!stripe.queue.offer(pending)) {
+            log.warn("Chat writer stripe {} full ({} pending), rejecting message to conversation {}",
+                    stripe.index, queueCapacity, messageDTO.getConversationId());
+            return CompletableFuture.failedFuture(new RuntimeException("Chat is busy, please try again"));
+        }
+        return pending.result;
+    }
+
+    /* ================= GROUP COMMIT ================= */
+
+    private void commit(List<PendingMessage> batch) {
+        Map<PendingMessage, MessageDTO> saved;
+        try {
+            saved = transactionTemplate.execute(status -> persist(batch));
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // Isolate the failing message instead of failing the whole burst
+            log.warn("Batch of {} messages failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(pending -> commit(List.of(pending)));
+            return;
+        }
+        saved.forEach((pending, dto) -> pending.result.complete(dto));
+    }
+
+    private Map<PendingMessage, MessageDTO> persist(List<PendingMessage> batch) {
+        // Rows are locked in id order, so two nodes writing overlapping batches cannot deadlock
+        Map<Long, List<PendingMessage>> byConversation = new TreeMap<>();
+        batch.forEach(pending -> byConversation
+                .computeIfAbsent(pending.dto.getConversationId(), id -> new ArrayList<>())
+                .add(pending));
+
+        Map<PendingMessage, MessageDTO> saved = new LinkedHashMap<>();
+        byConversation.forEach((conversationId, burst) -> {
+            // Held until commit, another node's stripe for this conversation waits here
+            Conversation conversation = conversationRepository.findByIdForUpdate(conversationId)
+                    .orElseThrow(() -> new RuntimeException("Conversation not found"));
+
+            long sequence = conversation.getLastSequence() != null ? conversation.getLastSequence() : 0L;
+            List<Message> messages = new ArrayList<>(burst.size());
+            for (PendingMessage pending : burst) {
+                Message message = Message.builder()
+                        .conversation(conversation)
+                        .sender(userRepository.getReferenceById(pending.senderId))
+                        .content(pending.dto.getContent())
+                        .attachmentUrl(pending.dto.getAttachmentUrl())
+                        .timestamp(pending.receivedAt)
+                        .type(pending.dto.getType() != null ? pending.dto.getType() : Message.MessageType.TEXT)
+                        .sequence(++sequence)
+                        .isRead(false)
+                        .build();
+                messages.add(messageRepository.save(message));
+            }
+
+            Message last = messages.get(messages.size() - 1);
+            conversation.setLastSequence(sequence);
+            conversation.setLastMessage(last);
+            conversation.setLastMessageTimestamp(last.getTimestamp());
+
+            inboxProjection.applyMessages(conversation, messages);
+
+            // One (id, email) query per conversation and batch, however many members
+            Map<Long, String> members = new LinkedHashMap<>();
+            memberRepository.findContactsByConversationId(conversationId)
+                    .forEach(row -> members.put((Long) row[0], (String) row[1]));
+
+            // Fan-out to the other members runs after commit, see MessageDeliveryWorker
+            for (int i = 0; i < messages.size(); i++) {
+                Message message = messages.get(i);
+                Map<Long, String> recipients = new LinkedHashMap<>(members);
+                recipients.remove(message.getSender().getId());
+
+                MessageDTO dto = mapToMessageDTO(message);
+                eventPublisher.publishEvent(new MessageSentEvent(dto, recipients));
+                saved.put(burst.get(i), dto);
+            }
+        });
+        return saved;
+    }
+
+    // Sender is an uninitialized reference, the name comes from the directory cache
+    private MessageDTO mapToMessageDTO(Message message) {
+        Long senderId = message.getSender().getId();
+        return MessageDTO.builder()
+                .id(message.getId())
+                .conversationId(message.getConversation().getId())
+                .senderId(senderId)
+                .senderName(userDirectoryService.getById(senderId).getUsername())
+                .content(message.getContent())
+                .attachmentUrl(message.getAttachmentUrl())
+                .timestamp(message.getTimestamp())
+                .type(message.getType())
+                .sequence(message.getSequence())
+                .isRead(false)
+                .build();
+    }
+
+    private static class PendingMessage {
+        private final MessageDTO dto;
+        private final Long senderId;
+        private final LocalDateTime receivedAt;
+        // Set once by whichever comes first: the stripe picking it up or the caller cancelling
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<MessageDTO> result = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return claimed.compareAndSet(false, true) && super.cancel(mayInterruptIfRunning);
+            }
+        };
+
+        PendingMessage(MessageDTO dto, Long senderId, LocalDateTime receivedAt) {
+            this.dto = dto;
+            this.senderId = senderId;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    private class Stripe implements Runnable {
+        private final int index;
+        private final BlockingQueue<PendingMessage> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final Thread thread;
+
+        Stripe(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "chat-writer-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<PendingMessage> batch = new ArrayList<>(maxBatch);
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, maxBatch - 1);
+                    // Skip messages whose sender already gave up waiting
+                    batch.removeIf(pending -> !pending.claimed.compareAndSet(false, true));
+                    if (!batch.isEmpty()) {
+                        commit(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("Chat writer stripe failed", e);
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+
+            List<PendingMessage> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            remaining.forEach(pending -> pending.result.completeExceptionally(
+                    new IllegalStateException("Chat writer is shutting down")));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Util.BoundedCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks up one-to-one conversations by their canonical (lowUserId, highUserId)
+ * pair, which is unique in the conversations table. Hits are kept in a bounded
+ * in-memory cache; ids of existing conversations never change, so entries
+ * only need evicting for memory.
+ */
+@Component
+@Slf4j
+public class DirectConversationIndex {
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BoundedCache<String, Long> cache;
+
+    public DirectConversationIndex(
+            ConversationRepository conversationRepository,
+            ConversationMemberRepository memberRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${chat.direct-index.cache-size:50000}") int cacheSize
+    ) {
+        this.conversationRepository = conversationRepository;
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cache = new BoundedCache<>(cacheSize);
+    }
+
+    public Optional<Long> find(Long userA, Long userB) {
+        long low = Math.min(userA, userB);
+        long high = Math.max(userA, userB);
+        return Optional.ofNullable(cache.computeIfAbsent(key(low, high),
+                k -> conversationRepository.findDirectConversationId(low, high).orElse(null)));
+    }
+
+    public void remember(Conversation conversation) {
+        if (conversation.getDirectUserLowId() != null) {
+            cache.put(key(conversation.getDirectUserLowId(), conversation.getDirectUserHighId()), conversation.getId());
+        }
+    }
+
+    public static void stamp(Conversation conversation, Long userA, Long userB) {
+        conversation.setDirectUserLowId(Math.min(userA, userB));
+        conversation.setDirectUserHighId(Math.max(userA, userB));
+    }
+
+    private String key(long low, long high) {
+        return low + ":" + high;
+    }
+
+    /* ================= BACKFILL ================= */
+
+    // One-to-one chats created before the pair columns existed; runs after the member backfill
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void backfillLegacyConversations() {
+        List<Long> ids = conversationRepository.findUnstampedDirectConversationIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int stamped = 0;
+        for (Long id : ids) {
+            try {
+                Boolean done = transactionTemplate.execute(status -> {
+                    Conversation conversation = conversationRepository.findById(id).orElse(null);
+                    if (conversation == null) {
+                        return false;
+                    }
+                    List<Long> userIds = memberRepository.findUserIdsByConversationId(id).stream().sorted().toList();
+                    if (userIds.isEmpty() || userIds.size() > 2) {
+                        return false;
+                    }
+                    stamp(conversation, userIds.get(0), userIds.get(userIds.size() - 1));
+                    conversationRepository.saveAndFlush(conversation);
+                    return true;
+                });
+                if (Boolean.TRUE.equals(done)) {
+                    stamped++;
+                }
+            } catch (DataIntegrityViolationException e) {
+                // A duplicate chat for the same pair; the first one stamped wins lookups
+                log.warn("Skipping duplicate direct conversation {}", id);
+            }
+        }
+        log.info("Backfilled direct pair key on {} of {} legacy conversations", stamped, ids.size());
+    }
+}
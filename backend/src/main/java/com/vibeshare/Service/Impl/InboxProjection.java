@@ -0,0 +1,160 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.InboxEntry;
+import com.vibeshare.Model.Message;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.InboxEntryRepository;
+import com.vibeshare.Repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the per-user inbox rows. Callers of apply/ensure must already be
+ * inside a transaction; rows missing for older conversations are filled at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InboxProjection {
+
+    private static final int PREVIEW_LENGTH = 100;
+    private static final int BACKFILL_BATCH = 500;
+
+    private final InboxEntryRepository inboxEntryRepository;
+    private final ConversationMemberRepository memberRepository;
+    private final UserRepository userRepository;
+    private final ConversationRepository conversationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Applies a burst of messages (ascending, same conversation) with one preview update. */
+    public void applyMessages(Conversation conversation, List<Message> messages) {
+        Message last = messages.get(messages.size() - 1);
+        int updated = inboxEntryRepository.updateLastMessage(
+                conversation.getId(),
+                last.getId(),
+                last.getSender().getId(),
+                preview(last),
+                type(last),
+                last.getTimestamp()
+        );
+
+        Map<Long, Integer> sentBy = new LinkedHashMap<>();
+        messages.forEach(message -> sentBy.merge(message.getSender().getId(), 1, Integer::sum));
+        sentBy.forEach((senderId, count) -> inboxEntryRepository.incrementUnread(conversation.getId(), senderId, count));
+
+        // Safety net for members the startup backfill has not reached yet
+        if (conversation.getMemberCount() == null || updated < conversation.getMemberCount()) {
+            ensureEntries(conversation);
+        }
+    }
+
+    public void ensureEntries(Conversation conversation) {
+        Set<Long> existing = new HashSet<>(inboxEntryRepository.findUserIdsByConversationId(conversation.getId()));
+        List<Long> memberIds = memberRepository.findUserIdsByConversationId(conversation.getId());
+        List<Long> missingIds = memberIds.stream()
+                .filter(userId -> !existing.contains(userId))
+                .collect(Collectors.toList());
+        if (missingIds.isEmpty()) {
+            return;
+        }
+
+        // Peer details only matter for one-to-one chats, which have two members
+        Map<Long, User> direct = conversation.isGroup()
+                ? Map.of()
+                : userRepository.findAllById(memberIds).stream()
+                        .collect(Collectors.toMap(User::getId, user -> user));
+        Message lastMessage = conversation.getLastMessage();
+
+        List<InboxEntry> missing = missingIds.stream()
+                .map(userId -> {
+                    InboxEntry entry = InboxEntry.builder()
+                            .userId(userId)
+                            .conversationId(conversation.getId())
+                            .isGroup(conversation.isGroup())
+                            .chatName(conversation.getChatName())
+                            .chatImage(conversation.getChatImage())
+                            .lastMessageTimestamp(conversation.getCreatedAt())
+                            .build();
+
+                    direct.values().stream()
+                            .filter(peer -> !peer.getId().equals(userId))
+                            .findFirst()
+                            .ifPresent(peer -> {
+                                entry.setPeerId(peer.getId());
+                                entry.setPeerUsername(peer.getUsername());
+                                entry.setPeerProfilePic(peer.getProfilePic());
+                            });
+
+                    if (lastMessage != null) {
+                        boolean ownMessage = lastMessage.getSender().getId().equals(userId);
+                        entry.setLastMessageId(lastMessage.getId());
+                        entry.setLastSenderId(lastMessage.getSender().getId());
+                        entry.setLastMessagePreview(preview(lastMessage));
+                        entry.setLastMessageType(type(lastMessage));
+                        entry.setLastMessageTimestamp(lastMessage.getTimestamp());
+                        entry.setUnreadCount(ownMessage || lastMessage.isRead() ? 0 : 1);
+                    }
+                    return entry;
+                })
+                .collect(Collectors.toList());
+
+        inboxEntryRepository.saveAll(missing);
+    }
+
+    /* ================= BACKFILL ================= */
+
+    // Conversations created before the projection existed; runs after the member and direct-pair backfills
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public void backfillMissingEntries() {
+        Long afterId = 0L;
+        int filled = 0;
+        while (true) {
+            List<Long> ids = conversationRepository.findIdsMissingInboxEntries(afterId, PageRequest.of(0, BACKFILL_BATCH));
+            for (Long id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            conversationRepository.findById(id).ifPresent(this::ensureEntries));
+                    filled++;
+                } catch (Exception e) {
+                    log.warn("Backfilling inbox entries of conversation {} failed: {}", id, e.getMessage());
+                }
+            }
+            if (ids.size() < BACKFILL_BATCH) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (filled > 0) {
+            log.info("Backfilled inbox entries for {} conversations", filled);
+        }
+    }
+
+    private String type(Message message) {
+        return message.getType() != null ? message.getType().name() : null;
+    }
+
+    private String preview(Message message) {
+        String content = message.getContent();
+        if (content == null || content.isBlank()) {
+            return message.getType() != null ? "[" + message.getType().name() + "]" : "";
+        }
+        return content.length() > PREVIEW_LENGTH ? content.substring(0, PREVIEW_LENGTH) : content;
+    }
+}
@@ -0,0 +1,60 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.JobLock;
+import com.vibeshare.Repository.JobLockRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Runs a scheduled job on one node at a time, through a lease row in
+ * job_locks. The lease should outlast the job; it is released when the job ends.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobLocks {
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    /** Runs the job and returns true, or returns false if another node holds the lease */
+    public boolean runExclusively(String name, Duration lease, Runnable job) {
+        if (!acquire(name, lease)) {
+            return false;
+        }
+        try {
+            job.run();
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(name, owner, Instant.now()));
+        }
+        return true;
+    }
+
+    private boolean acquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Integer acquired = transactionTemplate.execute(status -> jobLockRepository.acquire(name, owner, now, now.plus(lease)));
+        if (acquired != null && acquired > 0) {
+            return true;
+        }
+        if (jobLockRepository.existsById(name)) {
+            return false;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobLockRepository.saveAndFlush(JobLock.builder()
+                    .name(name)
+                    .lockedUntil(now.plus(lease))
+                    .lockedBy(owner)
+                    .build()));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the row first and holds the lease
+            return false;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Service.MailOutboxService;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory outbox for auth mails (verification codes, password resets).
+ * <p>
+ * The outbox is not persisted: whatever is still pending when the node stops
+ * gets one last delivery attempt on shutdown and is otherwise lost. That is
+ * acceptable for these mails since the user can request a new code.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+    private final JavaMailSender javaMailSender;
+
+    // Mails become visible to the dispatcher once their retry delay has elapsed
+    private final DelayQueue<OutboundMail> outbox = new DelayQueue<>();
+    private volatile boolean shuttingDown = false;
+
+    @Value("${spring.mail.username}")
+    private String senderEmail;
+
+    @Value("${mail.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mail.outbox.capacity:10000}")
+    private int capacity;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    @Value("${mail.outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Override
+    public boolean enqueue(String to, String subject, String text) {
+        if (!enabled) {
+            log.info("Mail outbox disabled, dropping mail '{}' to {}", subject, to);
+            return false;
+        }
+        if (outbox.size() >= capacity) {
+            log.warn("Mail outbox full ({} pending), dropping mail '{}' to {}", capacity, subject, to);
+            return false;
+        }
+        outbox.add(new OutboundMail(to, subject, text));
+        return true;
+    }
+
+    @Override
+    public int pendingCount() {
+        return outbox.size();
+    }
+
+    /* ================= DISPATCHER ================= */
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<OutboundMail> batch = new ArrayList<>(batchSize);
+        while (outbox.drainTo(batch, batchSize) > 0) {
+            sendBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void sendBatch(List<OutboundMail> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = batch.get(i).toMessage(senderEmail);
+        }
+
+        try {
+            // JavaMailSenderImpl delivers the whole array over a single SMTP connection
+            javaMailSender.send(messages);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            for (int i = 0; i < messages.length; i++) {
+                if (failed.isEmpty() || failed.containsKey(messages[i])) {
+                    retry(batch.get(i), failed.getOrDefault(messages[i], e));
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> retry(mail, e));
+        }
+    }
+
+    private void retry(OutboundMail mail, Exception cause) {
+        mail.attempts++;
+        if (mail.attempts >= maxAttempts) {
+            log.error("Giving up on mail '{}' to {} after {} attempts: {}",
+                    mail.getSubject(), mail.getTo(), mail.attempts, cause.getMessage());
+            return;
+        }
+        if (shuttingDown) {
+            log.error("Dropping mail '{}' to {} on shutdown: {}", mail.getSubject(), mail.getTo(), cause.getMessage());
+            return;
+        }
+        // Same bound as enqueue, retries must not grow the outbox past capacity
+        if (outbox.size() >= capacity) {
+            log.error("Mail outbox full ({} pending), dropping retry of mail '{}' to {}: {}",
+                    capacity, mail.getSubject(), mail.getTo(), cause.getMessage());
+            return;
+        }
+
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << (mail.attempts - 1));
+        mail.dueAt = System.currentTimeMillis() + backoff;
+        outbox.add(mail);
+        log.warn("Mail '{}' to {} failed (attempt {}), retrying in {} ms: {}",
+                mail.getSubject(), mail.getTo(), mail.attempts, backoff, cause.getMessage());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        // Last attempt for everything pending, due or still backing off
+        List<OutboundMail> pending = new ArrayList<>(outbox);
+        outbox.clear();
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.info("Flushing {} pending mails before shutdown", pending.size());
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            sendBatch(pending.subList(from, Math.min(pending.size(), from + batchSize)));
+        }
+    }
+
+    @Getter
+    private static class OutboundMail implements Delayed {
+        private final String to;
+        private final String subject;
+        private final String text;
+        private int attempts = 0;
+        private long dueAt = System.currentTimeMillis();
+
+        OutboundMail(String to, String subject, String text) {
+            this.to = to;
+            this.subject = subject;
+            this.text = text;
+        }
+
+        SimpleMailMessage toMessage(String from) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(from);
+            message.setTo(to);
+            message.setSubject(subject);
+            message.setText(text);
+            return message;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.Message;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MessageRepository;
+import com.vibeshare.Service.MessageArchiveService;
+import com.vibeshare.Service.UserDirectoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Cold tier for chat history. Messages older than chat.archive.max-age-days are
+ * moved into compressed archive blocks (see MessageSegmentStore) and deleted
+ * from the messages table; a conversation's last message always stays hot.
+ * <p>
+ * Each batch writes its blocks and deletes its rows in one transaction, under
+ * a row lock on the conversation, so a run that dies loses nothing and nodes
+ * running the job at the same time never archive a message twice. Archived
+ * ids are then dropped from this node's search index; other nodes evict them
+ * when a search fails to load them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageArchiveServiceImpl implements MessageArchiveService {
+
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final MessageSegmentStore segmentStore;
+    private final MessageSearchIndex messageSearchIndex;
+    private final UserDirectoryService userDirectoryService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${chat.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.archive.max-age-days:180}")
+    private int maxAgeDays;
+
+    @Value("${chat.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(cron = "${chat.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveOldMessages();
+        }
+    }
+
+    @Override
+    public int archiveOldMessages() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+        List<Long> conversationIds = messageRepository.findConversationIdsWithMessagesBefore(cutoff);
+
+        int moved = 0;
+        for (Long conversationId : conversationIds) {
+            try {
+                moved += archiveConversation(conversationId, cutoff);
+            } catch (Exception e) {
+                log.error("Archiving conversation {} failed: {}", conversationId, e.getMessage());
+            }
+        }
+        if (moved > 0) {
+            log.info("Archived {} messages from {} conversations older than {}", moved, conversationIds.size(), cutoff);
+        }
+        return moved;
+    }
+
+    private int archiveConversation(Long conversationId, LocalDateTime cutoff) {
+        int moved = 0;
+        while (true) {
+            List<Long> archived = transactionTemplate.execute(status -> {
+                Conversation conversation = conversationRepository.findByIdForUpdate(conversationId).orElse(null);
+                if (conversation == null) {
+                    return List.<Long>of();
+                }
+                Long keepId = conversation.getLastMessage() != null ? conversation.getLastMessage().getId() : -1L;
+                List<Message> messages = messageRepository.findArchivable(
+                        conversationId, cutoff, keepId, PageRequest.of(0, batchSize));
+                if (messages.isEmpty()) {
+                    return List.<Long>of();
+                }
+
+                segmentStore.append(conversationId, messages.stream().map(this::toArchived).collect(Collectors.toList()));
+                List<Long> ids = messages.stream().map(Message::getId).collect(Collectors.toList());
+                messageRepository.deleteAllByIdInBatch(ids);
+                return ids;
+            });
+            if (archived == null || archived.isEmpty()) {
+                return moved;
+            }
+            messageSearchIndex.remove(List.of(conversationId), archived);
+            moved += archived.size();
+            if (archived.size() < batchSize) {
+                return moved;
+            }
+        }
+    }
+
+    @Override
+    public List<MessageDTO> readBefore(Long conversationId, Long beforeId, int limit) {
+        return segmentStore.readBefore(conversationId, beforeId, limit).stream()
+                .map(archived -> MessageDTO.builder()
+                        .id(archived.getId())
+                        .conversationId(conversationId)
+                        .senderId(archived.getSenderId())
+                        .senderName(userDirectoryService.getById(archived.getSenderId()).getUsername())
+                        .content(archived.getContent())
+                        .attachmentUrl(archived.getAttachmentUrl())
+                        .timestamp(archived.getTimestamp())
+                        .sequence(archived.getSequence())
+                        .type(archived.getType())
+                        .isRead(archived.isRead())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private MessageSegmentStore.ArchivedMessage toArchived(Message message) {
+        // Sender stays an uninitialized proxy, only its id is stored
+        return MessageSegmentStore.ArchivedMessage.builder()
+                .id(message.getId())
+                .senderId(message.getSender().getId())
+                .timestamp(message.getTimestamp())
+                .sequence(message.getSequence())
+                .type(message.getType())
+                .isRead(message.isRead())
+                .content(message.getContent())
+                .attachmentUrl(message.getAttachmentUrl())
+                .build();
+    }
+}
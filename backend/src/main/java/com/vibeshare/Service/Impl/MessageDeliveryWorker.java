@@ -0,0 +1,174 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.Event.MessageSentEvent;
+import com.vibeshare.Service.NotificationService;
+import com.vibeshare.Service.UserEventService;
+import com.vibeshare.Util.ConversationTopics;
+import com.vibeshare.Util.KeyedSerialExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Fans a committed chat message out to its recipients.
+ * <p>
+ * The payload is serialized once and the same bytes are reused for the
+ * conversation topic and every user-queue push. Members already subscribed to
+ * the conversation topic get the message from the topic only; the remaining
+ * online members get a user-queue push and a notification, delivered in
+ * batches on the delivery executor so the sender never waits on fan-out.
+ * <p>
+ * Batches are queued per conversation, so consecutive messages reach each
+ * recipient in order. The event log append happens before queuing; if the
+ * delivery queue is full the pushes are dropped and clients catch up from the
+ * log, the writer thread is never blocked.
+ */
+@Component
+@Slf4j
+public class MessageDeliveryWorker {
+
+    private final NotificationService notificationService;
+    private final UserEventService userEventService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final KeyedSerialExecutor deliveryQueue;
+
+    @Value("${chat.delivery.batch-size:200}")
+    private int batchSize;
+
+    public MessageDeliveryWorker(
+            NotificationService notificationService,
+            UserEventService userEventService,
+            SimpMessagingTemplate messagingTemplate,
+            SimpUserRegistry userRegistry,
+            @Qualifier("deliveryExecutor") Executor deliveryExecutor,
+            @Value("${chat.delivery.max-pending:10000}") int maxPending
+    ) {
+        this.notificationService = notificationService;
+        this.userEventService = userEventService;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.deliveryQueue = new KeyedSerialExecutor(deliveryExecutor, maxPending);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        MessageDTO message = event.getMessage();
+        String topic = ConversationTopics.messages(message.getConversationId());
+        byte[] payload = serialize(message);
+
+        // Sender acknowledgment and every active viewer of the conversation
+        send(topic, payload, null);
+
+        List<Recipient> pending = new ArrayList<>(batchSize);
+        for (Map.Entry<Long, String> recipient : event.getRecipients().entrySet()) {
+            // Logged for every recipient so a reconnecting client can catch up, see UserEventService
+            long seq = userEventService.append(recipient.getKey(), UserEventService.TYPE_MESSAGE, message);
+            pending.add(new Recipient(recipient.getKey(), recipient.getValue(), seq));
+            if (pending.size() == batchSize) {
+                submitBatch(message, topic, payload, pending);
+                pending = new ArrayList<>(batchSize);
+            }
+        }
+        if (!pending.isEmpty()) {
+            submitBatch(message, topic, payload, pending);
+        }
+    }
+
+    private void submitBatch(MessageDTO message, String topic, byte[] payload, List<Recipient> batch) {
+        boolean queued = deliveryQueue.execute(message.getConversationId(), () -> {
+            for (Recipient recipient : batch) {
+                try {
+                    if (isSubscribed(recipient.username(), topic)) {
+                        continue;
+                    }
+
+                    notify(message, recipient.userId());
+
+                    // Global toasts / inbox preview, the client subscribes to /user/queue/messages
+                    if (userRegistry.getUser(recipient.username()) != null) {
+                        send(userDestination(recipient.username(), "/queue/messages"), payload, recipient.seq());
+                    }
+                } catch (Exception e) {
+                    log.warn("Delivery of message {} to user {} failed: {}",
+                            message.getId(), recipient.userId(), e.getMessage());
+                }
+            }
+        });
+        if (!queued) {
+            log.warn("Delivery queue full, skipping pushes of message {} to {} recipients",
+                    message.getId(), batch.size());
+        }
+    }
+
+    private void notify(MessageDTO message, Long recipientId) {
+        CreateNotificationRequest notificationRequest = new CreateNotificationRequest();
+        notificationRequest.setRecipientId(recipientId);
+        notificationRequest.setActorId(message.getSenderId());
+        notificationRequest.setType("MESSAGE");
+        notificationRequest.setMessage("sent you a message");
+        notificationRequest.setSourceId(message.getConversationId().toString());
+        notificationService.createAndSend(notificationRequest);
+    }
+
+    private boolean isSubscribed(String username, String destination) {
+        SimpUser user = userRegistry.getUser(username);
+        if (user == null) {
+            return false;
+        }
+        for (SimpSession session : user.getSessions()) {
+            if (session.getSubscriptions().stream().anyMatch(sub -> destination.equals(sub.getDestination()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* ================= ENCODING ================= */
+
+    private byte[] serialize(Object payload) {
+        MessageHeaders headers = new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON));
+        org.springframework.messaging.Message<?> encoded = messagingTemplate.getMessageConverter().toMessage(payload, headers);
+        if (encoded == null || !(encoded.getPayload() instanceof byte[] bytes)) {
+            throw new IllegalStateException("Cannot serialize " + payload.getClass().getSimpleName());
+        }
+        return bytes;
+    }
+
+    // Each destination gets its own headers, the body bytes are shared
+    private void send(String destination, byte[] payload, Long seq) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (seq != null) {
+            accessor.setNativeHeader("seq", String.valueOf(seq));
+        }
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    private String userDestination(String username, String destination) {
+        return "/user/" + username.replace("/", "%2F") + destination;
+    }
+
+    private record Recipient(Long userId, String username, long seq) {
+    }
+}
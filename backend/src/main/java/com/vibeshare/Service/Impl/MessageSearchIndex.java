@@ -0,0 +1,359 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Event.MessageSentEvent;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MessageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory inverted index over message content, one partition per conversation.
+ * <p>
+ * Each partition maps a term to the ascending ids of the messages containing it.
+ * Ids grow monotonically within a conversation (one writer stripe per
+ * conversation), so live updates are plain appends. Queries AND all terms and
+ * walk postings from the newest id down, which gives keyset paging for free.
+ * <p>
+ * The messages table stays the source of truth. Local sends are indexed from
+ * their commit event; in relay mode the other nodes' sends are picked up by
+ * tailing the table (see catchUp). Ids whose rows are gone are removed by the
+ * archiver and by search itself when it fails to load them.
+ */
+@Component
+@Slf4j
+public class MessageSearchIndex {
+
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final MessageRepository messageRepository;
+    private final ConversationRepository conversationRepository;
+    private final Map<Long, Partition> partitions = new ConcurrentHashMap<>();
+
+    @Value("${chat.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    @Value("${chat.search.rebuild-parallelism:4}")
+    private int rebuildParallelism;
+
+    @Value("${chat.broker.mode:simple}")
+    private String brokerMode;
+
+    // A row can commit a while after its timestamp (writer queue), so each scan re-reads this far back
+    @Value("${chat.search.catch-up-overlap-ms:30000}")
+    private long catchUpOverlapMs;
+
+    private volatile LocalDateTime caughtUpTo;
+
+    public MessageSearchIndex(MessageRepository messageRepository, ConversationRepository conversationRepository) {
+        this.messageRepository = messageRepository;
+        this.conversationRepository = conversationRepository;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        index(event.getMessage().getConversationId(), event.getMessage().getId(), event.getMessage().getContent());
+    }
+
+    /** Drops ids whose rows no longer exist from the given conversations' partitions */
+    public void remove(Collection<Long> conversationIds, Collection<Long> messageIds) {
+        if (messageIds.isEmpty()) {
+            return;
+        }
+        Set<Long> gone = new HashSet<>(messageIds);
+        for (Long conversationId : conversationIds) {
+            Partition partition = partitions.get(conversationId);
+            if (partition != null) {
+                partition.removeAll(gone);
+            }
+        }
+    }
+
+    /**
+     * Ids of messages in the given conversations containing every term of the
+     * query, newest first, strictly older than beforeId when given.
+     */
+    public List<Long> search(Collection<Long> conversationIds, String query, Long beforeId, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long upper = beforeId != null ? beforeId : Long.MAX_VALUE;
+
+        // Each partition yields at most limit hits; merge them newest first
+        List<Long> hits = new ArrayList<>();
+        for (Long conversationId : conversationIds) {
+            Partition partition = partitions.get(conversationId);
+            if (partition != null) {
+                partition.match(terms, upper, limit, hits);
+            }
+        }
+        hits.sort((a, b) -> Long.compare(b, a));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private void index(Long conversationId, Long messageId, String content) {
+        Set<String> terms = tokenize(content);
+        if (terms.isEmpty()) {
+            return;
+        }
+        // compute() serializes against a concurrent partition swap from rebuild
+        partitions.compute(conversationId, (id, partition) -> {
+            Partition target = partition != null ? partition : new Partition();
+            target.add(messageId, terms);
+            return target;
+        });
+    }
+
+    /* ================= CATCH-UP ================= */
+
+    /**
+     * Relay mode only: messages sent through other nodes never raise an event
+     * here, so recent rows are read back from the table. Already indexed ids
+     * are skipped by the postings.
+     */
+    @Scheduled(fixedDelayString = "${chat.search.catch-up-interval-ms:2000}")
+    public void catchUp() {
+        if (!"relay".equalsIgnoreCase(brokerMode)) {
+            return;
+        }
+        LocalDateTime scanStarted = LocalDateTime.now();
+        LocalDateTime since = (caughtUpTo != null ? caughtUpTo : scanStarted).minus(Duration.ofMillis(catchUpOverlapMs));
+
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = messageRepository.findContentSince(since, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                index((Long) row[1], afterId, (String) row[2]);
+            }
+            if (rows.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+        }
+        caughtUpTo = scanStarted;
+    }
+
+    /* ================= REBUILD ================= */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            Thread thread = new Thread(this::rebuild, "chat-search-rebuild");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        List<Long> conversationIds = conversationRepository.findAllIds();
+        AtomicInteger indexed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildParallelism));
+        try {
+            for (Long conversationId : conversationIds) {
+                pool.execute(() -> {
+                    try {
+                        indexed.addAndGet(rebuildConversation(conversationId));
+                    } catch (Exception e) {
+                        log.warn("Search rebuild of conversation {} failed: {}", conversationId, e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try {
+            pool.awaitTermination(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Search index rebuilt: {} messages in {} conversations, {} ms",
+                indexed.get(), conversationIds.size(), System.currentTimeMillis() - started);
+    }
+
+    private int rebuildConversation(Long conversationId) {
+        Partition built = new Partition();
+        long afterId = 0;
+        int count = 0;
+        while (true) {
+            List<Object[]> rows = messageRepository.findContentAfter(
+                    conversationId, afterId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Object[] row : rows) {
+                afterId = (Long) row[0];
+                Set<String> terms = tokenize((String) row[1]);
+                if (!terms.isEmpty()) {
+                    built.add(afterId, terms);
+                    count++;
+                }
+            }
+            if (rows.size() < REBUILD_PAGE_SIZE) {
+                break;
+            }
+        }
+
+        // Keep whatever was indexed live while the rebuild was reading
+        partitions.merge(conversationId, built, (live, fresh) -> fresh.absorbNewer(live));
+        return count;
+    }
+
+    /* ================= TOKENIZER ================= */
+
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        StringBuilder term = new StringBuilder();
+        text.codePoints().forEach(cp -> {
+            if (Character.isLetterOrDigit(cp)) {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(Character.toLowerCase(cp));
+                }
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        });
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+
+    /* ================= PARTITION ================= */
+
+    private static class Partition {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private long maxId = 0;
+
+        synchronized void add(long messageId, Set<String> terms) {
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new Postings()).append(messageId);
+            }
+            maxId = Math.max(maxId, messageId);
+        }
+
+        synchronized void match(List<String> terms, long upper, int limit, List<Long> out) {
+            Postings[] lists = new Postings[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return;
+                }
+            }
+            // Drive from the rarest term, probe the others by binary search
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            Postings driver = lists[0];
+            int found = 0;
+            for (int i = driver.floorIndex(upper - 1); i >= 0 && found < limit; i--) {
+                long id = driver.ids[i];
+                boolean all = true;
+                for (int j = 1; j < lists.length && all; j++) {
+                    all = lists[j].contains(id);
+                }
+                if (all) {
+                    out.add(id);
+                    found++;
+                }
+            }
+        }
+
+        synchronized void removeAll(Set<Long> ids) {
+            postings.values().removeIf(list -> list.removeAll(ids) == 0);
+        }
+
+        // Called with this = freshly rebuilt partition, other = live one it replaces
+        synchronized Partition absorbNewer(Partition live) {
+            synchronized (live) {
+                live.postings.forEach((term, list) -> {
+                    for (int i = 0; i < list.size; i++) {
+                        if (list.ids[i] > maxId) {
+                            postings.computeIfAbsent(term, t -> new Postings()).append(list.ids[i]);
+                        }
+                    }
+                });
+                maxId = Math.max(maxId, live.maxId);
+            }
+            return this;
+        }
+    }
+
+    private static class Postings {
+        private long[] ids = new long[4];
+        private int size = 0;
+
+        void append(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                if (contains(id)) {
+                    return;
+                }
+                insertSorted(id);
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        // Compacts in place, returns the remaining size
+        int removeAll(Set<Long> gone) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!gone.contains(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            size = kept;
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // Index of the last id <= value, -1 if none
+        int floorIndex(long value) {
+            int pos = Arrays.binarySearch(ids, 0, size, value);
+            return pos >= 0 ? pos : -pos - 2;
+        }
+
+        private void insertSorted(long id) {
+            int pos = -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.Message;
+import com.vibeshare.Model.MessageArchiveBlock;
+import com.vibeshare.Repository.MessageArchiveBlockRepository;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed archive blocks for messages moved out of the messages table.
+ * <p>
+ * Each row of message_archive_blocks holds a deflate-compressed run of
+ * consecutive messages of one conversation (ascending id) with its first and
+ * last id, so a page of history is one indexed range read plus an inflate.
+ * Blocks live in the same database as the messages, so every node sees them
+ * and append() commits atomically with the delete of the archived rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class MessageSegmentStore {
+
+    private static final int READ_PAGE_BLOCKS = 4;
+
+    private final MessageArchiveBlockRepository blockRepository;
+
+    @Value("${chat.archive.block-size:256}")
+    private int blockSize;
+
+    /** Appends messages (ascending id); must run in the transaction that deletes them */
+    public void append(Long conversationId, List<ArchivedMessage> messages) {
+        List<MessageArchiveBlock> blocks = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += blockSize) {
+            List<ArchivedMessage> block = messages.subList(from, Math.min(from + blockSize, messages.size()));
+            byte[] raw = encode(block);
+            blocks.add(MessageArchiveBlock.builder()
+                    .conversationId(conversationId)
+                    .firstMessageId(block.get(0).getId())
+                    .lastMessageId(block.get(block.size() - 1).getId())
+                    .messageCount(block.size())
+                    .rawLength(raw.length)
+                    .data(deflate(raw))
+                    .build());
+        }
+        blockRepository.saveAll(blocks);
+    }
+
+    /** Up to limit archived messages with id < beforeId (any id when null), newest first */
+    public List<ArchivedMessage> readBefore(Long conversationId, Long beforeId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long upper = beforeId != null ? beforeId : Long.MAX_VALUE;
+
+        List<ArchivedMessage> result = new ArrayList<>(limit);
+        long blockUpper = upper;
+        while (result.size() < limit) {
+            List<MessageArchiveBlock> blocks = blockRepository.findStartingBefore(
+                    conversationId, blockUpper, PageRequest.of(0, READ_PAGE_BLOCKS));
+            for (MessageArchiveBlock block : blocks) {
+                List<ArchivedMessage> messages = decode(inflate(block));
+                for (int i = messages.size() - 1; i >= 0 && result.size() < limit; i--) {
+                    if (messages.get(i).getId() < upper) {
+                        result.add(messages.get(i));
+                    }
+                }
+                blockUpper = block.getFirstMessageId();
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+            if (blocks.size() < READ_PAGE_BLOCKS) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /* ================= ENCODING ================= */
+
+    private byte[] encode(List<ArchivedMessage> block) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (ArchivedMessage message : block) {
+                out.writeLong(message.getId());
+                out.writeLong(message.getSenderId());
+                out.writeLong(message.getTimestamp() != null
+                        ? message.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli()
+                        : Long.MIN_VALUE);
+                out.writeLong(message.getSequence() != null ? message.getSequence() : -1);
+                writeString(out, message.getType() != null ? message.getType().name() : null);
+                out.writeBoolean(message.isRead());
+                writeString(out, message.getContent());
+                writeString(out, message.getAttachmentUrl());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<ArchivedMessage> decode(byte[] raw) {
+        List<ArchivedMessage> messages = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw))) {
+            while (in.available() > 0) {
+                long id = in.readLong();
+                long senderId = in.readLong();
+                long millis = in.readLong();
+                long sequence = in.readLong();
+                String type = readString(in);
+                boolean isRead = in.readBoolean();
+                messages.add(ArchivedMessage.builder()
+                        .id(id)
+                        .senderId(senderId)
+                        .timestamp(millis == Long.MIN_VALUE
+                                ? null
+                                : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC))
+                        .sequence(sequence < 0 ? null : sequence)
+                        .type(type != null ? Message.MessageType.valueOf(type) : null)
+                        .isRead(isRead)
+                        .content(readString(in))
+                        .attachmentUrl(readString(in))
+                        .build());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return messages;
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(MessageArchiveBlock block) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(block.getData());
+            byte[] raw = new byte[block.getRawLength()];
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated archive block " + block.getId());
+                }
+                read += n;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive block " + block.getId(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class ArchivedMessage {
+        private final long id;
+        private final long senderId;
+        private final LocalDateTime timestamp;
+        private final Long sequence;
+        private final Message.MessageType type;
+        private final boolean isRead;
+        private final String content;
+        private final String attachmentUrl;
+    }
+}
@@ -0,0 +1,233 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.NotificationResponse;
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.Repository.NotificationRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserDirectoryService;
+import com.vibeshare.Service.UserEventService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Folds bursts of same-type notifications on the same source ("alice and 41
+ * others liked your post") into one row.
+ * <p>
+ * The first notification for a (recipient, type, source) opens a window and is
+ * stored and pushed right away. Everything else arriving inside the window is
+ * only counted here, by distinct actor. When the window closes the row gets
+ * the final count and latest actor in one update, with a single push, and only
+ * if anyone new joined.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final UserDirectoryService userDirectoryService;
+    private final UserEventService userEventService;
+    private final NotificationSseHub notificationSseHub;
+    private final NotificationUnreadCounter unreadCounter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<CoalesceKey, Window> windows = new ConcurrentHashMap<>();
+
+    @Value("${notifications.coalesce.window-ms:60000}")
+    private long windowMs;
+
+    @Value("${notifications.coalesce.types:LIKE,COMMENT,FOLLOW}")
+    private List<String> types;
+
+    public NotificationCoalescer(
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            UserDirectoryService userDirectoryService,
+            UserEventService userEventService,
+            NotificationSseHub notificationSseHub,
+            NotificationUnreadCounter unreadCounter,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.userDirectoryService = userDirectoryService;
+        this.userEventService = userEventService;
+        this.notificationSseHub = notificationSseHub;
+        this.unreadCounter = unreadCounter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Folds the request into an open window and returns true, or returns false
+     * if it opened a new window or cannot be coalesced; the caller then stores
+     * and pushes it as usual and reports back through {@link #opened}.
+     */
+    public boolean absorb(CreateNotificationRequest request) {
+        if (request.getActorId() == null || !types.contains(request.getType())) {
+            return false;
+        }
+
+        CoalesceKey key = new CoalesceKey(request.getRecipientId(), request.getType(), request.getSourceId());
+        long now = System.currentTimeMillis();
+        boolean[] absorbed = {false};
+        Window[] closed = {null};
+
+        windows.compute(key, (k, window) -> {
+            if (window != null && now - window.openedAt < windowMs) {
+                window.add(request);
+                absorbed[0] = true;
+                return window;
+            }
+            closed[0] = window;
+            Window opened = new Window(now);
+            opened.add(request);
+            return opened;
+        });
+
+        if (closed[0] != null) {
+            flush(key, closed[0]);
+        }
+        return absorbed[0];
+    }
+
+    public void opened(CreateNotificationRequest request, NotificationResponse created) {
+        Window window = windows.get(new CoalesceKey(request.getRecipientId(), request.getType(), request.getSourceId()));
+        if (window != null) {
+            window.open(created);
+        }
+    }
+
+    // Storing the leading notification failed, let the next one start over
+    public void abandon(CreateNotificationRequest request) {
+        windows.computeIfPresent(new CoalesceKey(request.getRecipientId(), request.getType(), request.getSourceId()),
+                (k, window) -> window.isOpened() ? window : null);
+    }
+
+    /* ================= WINDOW CLOSE ================= */
+
+    @Scheduled(fixedDelayString = "${notifications.coalesce.sweep-interval-ms:1000}")
+    public void closeExpired() {
+        long cutoff = System.currentTimeMillis() - windowMs;
+        Iterator<Map.Entry<CoalesceKey, Window>> it = windows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CoalesceKey, Window> entry = it.next();
+            Window window = entry.getValue();
+            if (window.openedAt < cutoff && windows.remove(entry.getKey(), window)) {
+                flush(entry.getKey(), window);
+            }
+        }
+    }
+
+    // Windows only live in memory, so whatever they counted is written before the node goes away
+    @PreDestroy
+    public void flushAll() {
+        Iterator<Map.Entry<CoalesceKey, Window>> it = windows.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<CoalesceKey, Window> entry = it.next();
+            if (windows.remove(entry.getKey(), entry.getValue())) {
+                flush(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void flush(CoalesceKey key, Window window) {
+        Flush flush = window.takeFlush();
+        if (flush == null) {
+            return;
+        }
+
+        Boolean updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                if (notificationRepository.updateAggregate(flush.notificationId(), flush.count(),
+                        userRepository.getReferenceById(flush.actorId()), flush.message()) == 0) {
+                    return false;
+                }
+                // New activity brings the row back as unread
+                if (notificationRepository.markUnread(flush.notificationId()) == 1) {
+                    unreadCounter.adjust(key.recipientId(), 1);
+                }
+                return true;
+            });
+        } catch (Exception e) {
+            log.warn("Failed to update aggregate notification {}: {}", flush.notificationId(), e.getMessage());
+            return;
+        }
+        if (!Boolean.TRUE.equals(updated)) {
+            // The leading row was rolled back or already purged
+            return;
+        }
+
+        NotificationResponse aggregate = new NotificationResponse(
+                flush.notificationId(),
+                key.recipientId(),
+                flush.actorId(),
+                userDirectoryService.getById(flush.actorId()).getUsername(),
+                key.type(),
+                flush.message(),
+                key.sourceId(),
+                false,
+                flush.createdAt(),
+                flush.count()
+        );
+        long seq = userEventService.append(key.recipientId(), UserEventService.TYPE_NOTIFICATION, aggregate);
+        notificationSseHub.publish(key.recipientId(), aggregate, seq);
+    }
+
+    private record CoalesceKey(Long recipientId, String type, String sourceId) {
+    }
+
+    private record Flush(Long notificationId, int count, Long actorId, String message, Instant createdAt) {
+    }
+
+    private static class Window {
+        private final long openedAt;
+        private final Set<Long> actorIds = new LinkedHashSet<>();
+        private NotificationResponse leading;
+        private Long lastActorId;
+        private String lastMessage;
+        private int pushedCount;
+
+        Window(long openedAt) {
+            this.openedAt = openedAt;
+        }
+
+        synchronized void add(CreateNotificationRequest request) {
+            actorIds.add(request.getActorId());
+            lastActorId = request.getActorId();
+            lastMessage = request.getMessage();
+        }
+
+        synchronized void open(NotificationResponse created) {
+            if (leading == null) {
+                leading = created;
+                pushedCount = 1;
+            }
+        }
+
+        synchronized boolean isOpened() {
+            return leading != null;
+        }
+
+        // Null when nobody new joined since the leading push
+        synchronized Flush takeFlush() {
+            if (leading == null || actorIds.size() <= pushedCount) {
+                return null;
+            }
+            pushedCount = actorIds.size();
+            return new Flush(leading.getId(), actorIds.size(), lastActorId, lastMessage, leading.getCreatedAt());
+        }
+    }
+}
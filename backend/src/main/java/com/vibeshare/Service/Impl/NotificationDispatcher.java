@@ -0,0 +1,271 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.NotificationResponse;
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.Model.Notification;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.NotificationRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserEventService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores and pushes notifications off the caller's thread.
+ * <p>
+ * Callers only enqueue. Workers drain whatever has queued up into one batch:
+ * coalescible requests are folded first, recipients and actors of the rest are
+ * loaded in one query, the rows are written in one transaction, and the SSE
+ * pushes go out after commit.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final String TYPE_MESSAGE = "MESSAGE";
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final NotificationCoalescer notificationCoalescer;
+    private final NotificationUnreadCounter unreadCounter;
+    private final UserEventService userEventService;
+    private final NotificationSseHub notificationSseHub;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor notificationExecutor;
+
+    private final BlockingQueue<CreateNotificationRequest> queue;
+    private volatile boolean running = true;
+
+    @Value("${notifications.dispatch.workers:2}")
+    private int workers;
+
+    @Value("${notifications.dispatch.max-batch:100}")
+    private int maxBatch;
+
+    public NotificationDispatcher(
+            NotificationRepository notificationRepository,
+            UserRepository userRepository,
+            NotificationCoalescer notificationCoalescer,
+            NotificationUnreadCounter unreadCounter,
+            UserEventService userEventService,
+            NotificationSseHub notificationSseHub,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("notificationExecutor") Executor notificationExecutor,
+            @Value("${notifications.dispatch.queue-capacity:10000}") int queueCapacity
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.notificationCoalescer = notificationCoalescer;
+        this.unreadCounter = unreadCounter;
+        this.userEventService = userEventService;
+        this.notificationSseHub = notificationSseHub;
+        this.transactionTemplate = transactionTemplate;
+        this.notificationExecutor = notificationExecutor;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < workers; i++) {
+            notificationExecutor.execute(this::drain);
+        }
+    }
+
+    // Runs before NotificationCoalescer's flush, which depends on it, so windows opened here are flushed too
+    @PreDestroy
+    public void stop() {
+        running = false;
+        int remaining = queue.size();
+        if (remaining > 0) {
+            log.info("Dispatching {} queued notifications before shutdown", remaining);
+        }
+        List<CreateNotificationRequest> batch = new ArrayList<>(maxBatch);
+        while (queue.drainTo(batch, maxBatch) > 0) {
+            try {
+                dispatch(batch);
+            } catch (Exception e) {
+                log.error("Notification dispatch failed for a batch of {} during shutdown", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Returns false if the queue is full and the notification was dropped. */
+    public boolean submit(CreateNotificationRequest request) {
+        if (!queue.offer(request)) {
+            log.warn("Notification queue full, dropping {} for user {}", request.getType(), request.getRecipientId());
+            return false;
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    /* ================= WORKER ================= */
+
+    private void drain() {
+        List<CreateNotificationRequest> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                CreateNotificationRequest first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Notification dispatch failed for a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<CreateNotificationRequest> batch) {
+        List<CreateNotificationRequest> toStore = new ArrayList<>(batch.size());
+        for (CreateNotificationRequest request : batch) {
+            // Inside an open window this is only counted, see NotificationCoalescer
+            if (!notificationCoalescer.absorb(request)) {
+                toStore.add(request);
+            }
+        }
+        if (toStore.isEmpty()) {
+            return;
+        }
+        unreadCounter.ensure(toStore.stream()
+                .filter(request -> !TYPE_MESSAGE.equals(request.getType()))
+                .map(CreateNotificationRequest::getRecipientId)
+                .collect(Collectors.toSet()));
+
+        Map<CreateNotificationRequest, Delivery> deliveries;
+        try {
+            deliveries = transactionTemplate.execute(status -> persist(toStore));
+        } catch (Exception e) {
+            if (toStore.size() == 1) {
+                notificationCoalescer.abandon(toStore.get(0));
+                log.warn("Dropping {} notification for user {}: {}",
+                        toStore.get(0).getType(), toStore.get(0).getRecipientId(), e.getMessage());
+                return;
+            }
+            // Isolate the failing request instead of losing the whole batch
+            log.warn("Batch of {} notifications failed, retrying one by one: {}", toStore.size(), e.getMessage());
+            toStore.forEach(this::retryAlone);
+            return;
+        }
+        deliveries.forEach(this::deliver);
+    }
+
+    private void retryAlone(CreateNotificationRequest request) {
+        try {
+            Map<CreateNotificationRequest, Delivery> delivery = transactionTemplate.execute(status -> persist(List.of(request)));
+            delivery.forEach(this::deliver);
+        } catch (Exception e) {
+            notificationCoalescer.abandon(request);
+            log.warn("Dropping {} notification for user {}: {}", request.getType(), request.getRecipientId(), e.getMessage());
+        }
+    }
+
+    private Map<CreateNotificationRequest, Delivery> persist(List<CreateNotificationRequest> requests) {
+        Set<Long> userIds = new HashSet<>();
+        requests.forEach(request -> {
+            userIds.add(request.getRecipientId());
+            if (request.getActorId() != null) {
+                userIds.add(request.getActorId());
+            }
+        });
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<CreateNotificationRequest, Notification> rows = new LinkedHashMap<>();
+        Map<CreateNotificationRequest, Delivery> deliveries = new LinkedHashMap<>();
+        for (CreateNotificationRequest request : requests) {
+            User recipient = users.get(request.getRecipientId());
+            User actor = request.getActorId() != null ? users.get(request.getActorId()) : null;
+            if (recipient == null || (request.getActorId() != null && actor == null)) {
+                log.warn("Skipping {} notification, unknown recipient {} or actor {}",
+                        request.getType(), request.getRecipientId(), request.getActorId());
+                // Never stored, so a window it opened would absorb everything after it
+                notificationCoalescer.abandon(request);
+                continue;
+            }
+
+            if (TYPE_MESSAGE.equals(request.getType())) {
+                // Don't save chat messages to Notification History (User requested just a toaster)
+                deliveries.put(request, new Delivery(new NotificationResponse(
+                        0L,
+                        recipient.getId(),
+                        actor == null ? null : actor.getId(),
+                        actor == null ? null : actor.getUsername(),
+                        request.getType(),
+                        request.getMessage(),
+                        request.getSourceId(),
+                        false,
+                        Instant.now(),
+                        1
+                ), false));
+                continue;
+            }
+
+            Notification notification = new Notification();
+            notification.setRecipient(recipient);
+            notification.setActor(actor);
+            notification.setType(request.getType());
+            notification.setMessage(request.getMessage());
+            notification.setSourceId(request.getSourceId());
+            notification.setReadFlag(false);
+            rows.put(request, notification);
+        }
+
+        if (!rows.isEmpty()) {
+            notificationRepository.saveAll(rows.values());
+            rows.values().stream()
+                    .collect(Collectors.groupingBy(notification -> notification.getRecipient().getId(), Collectors.counting()))
+                    .forEach(unreadCounter::adjust);
+            rows.forEach((request, notification) ->
+                    deliveries.put(request, new Delivery(NotificationServiceImpl.toDto(notification), true)));
+        }
+        return deliveries;
+    }
+
+    // After commit, so nothing is pushed for a row that was rolled back
+    private void deliver(CreateNotificationRequest request, Delivery delivery) {
+        NotificationResponse response = delivery.response();
+        Long seq = null;
+        if (delivery.stored()) {
+            notificationCoalescer.opened(request, response);
+            // Chat messages are already in the event log as MESSAGE events
+            // The seq doubles as the SSE event id, see NotificationSseHub
+            seq = userEventService.append(response.getRecipientId(), UserEventService.TYPE_NOTIFICATION, response);
+        }
+        notificationSseHub.publish(response.getRecipientId(), response, seq);
+    }
+
+    private record Delivery(NotificationResponse response, boolean stored) {
+    }
+}
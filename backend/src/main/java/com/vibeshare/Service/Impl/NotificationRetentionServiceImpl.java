@@ -0,0 +1,182 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Repository.NotificationRepository;
+import com.vibeshare.Service.NotificationRetentionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the notifications table, and with it every recipient's index range, short.
+ * <p>
+ * Read notifications older than notifications.retention.read-max-age-days are
+ * deleted, then anyone still above notifications.retention.max-per-user loses
+ * their oldest rows, read or not; unread ones deleted that way are taken off
+ * the unread counter in the same transaction. Deletes run in batches of
+ * notifications.retention.batch-size, one transaction each, so a run never
+ * holds locks on a large range. A run holds the notification-retention lease
+ * in job_locks, so only one node purges at a time.
+ */
+@Service
+@Slf4j
+public class NotificationRetentionServiceImpl implements NotificationRetentionService {
+
+    private static final String LOCK_NAME = "notification-retention";
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationUnreadCounter unreadCounter;
+    private final JobLocks jobLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter purgedByAge;
+    private final Counter purgedByCap;
+    private final AtomicLong tableRows = new AtomicLong();
+
+    @Value("${notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notifications.retention.read-max-age-days:30}")
+    private int readMaxAgeDays;
+
+    @Value("${notifications.retention.max-per-user:1000}")
+    private int maxPerUser;
+
+    @Value("${notifications.retention.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${notifications.retention.lease-ms:3600000}")
+    private long leaseMs;
+
+    public NotificationRetentionServiceImpl(
+            NotificationRepository notificationRepository,
+            NotificationUnreadCounter unreadCounter,
+            JobLocks jobLocks,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.notificationRepository = notificationRepository;
+        this.unreadCounter = unreadCounter;
+        this.jobLocks = jobLocks;
+        this.transactionTemplate = transactionTemplate;
+        this.purgedByAge = Counter.builder("notifications.retention.purged")
+                .description("Notifications deleted by the retention job")
+                .tag("reason", "age")
+                .register(meterRegistry);
+        this.purgedByCap = Counter.builder("notifications.retention.purged")
+                .description("Notifications deleted by the retention job")
+                .tag("reason", "cap")
+                .register(meterRegistry);
+        // Refreshed by each run rather than counted on every scrape
+        Gauge.builder("notifications.table.rows", tableRows, AtomicLong::get)
+                .description("Rows in the notifications table after the last retention run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 0 4 * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    @Override
+    public int purge() {
+        int[] purged = {0};
+        boolean ran = jobLocks.runExclusively(LOCK_NAME, Duration.ofMillis(leaseMs), () -> {
+            int byAge = purgeReadBefore(Instant.now().minus(readMaxAgeDays, ChronoUnit.DAYS));
+            int byCap = maxPerUser > 0 ? trimToCap() : 0;
+            tableRows.set(notificationRepository.count());
+            if (byAge + byCap > 0) {
+                log.info("Purged {} read notifications older than {} days and {} above the per-user cap of {}",
+                        byAge, readMaxAgeDays, byCap, maxPerUser);
+            }
+            purged[0] = byAge + byCap;
+        });
+        if (!ran) {
+            log.debug("Notification retention is running on another node");
+        }
+        return purged[0];
+    }
+
+    /* ================= AGE ================= */
+
+    private int purgeReadBefore(Instant cutoff) {
+        int purged = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+                if (!ids.isEmpty()) {
+                    // A row brought back as unread since the select is kept
+                    notificationRepository.deleteReadByIdIn(ids);
+                }
+                return ids.size();
+            });
+            if (batch == null || batch == 0) {
+                return purged;
+            }
+            purged += batch;
+            purgedByAge.increment(batch);
+            if (batch < batchSize) {
+                return purged;
+            }
+        }
+    }
+
+    /* ================= PER-USER CAP ================= */
+
+    private int trimToCap() {
+        int purged = 0;
+        for (Long recipientId : notificationRepository.findRecipientIdsWithMoreThan(maxPerUser)) {
+            try {
+                purged += trimRecipient(recipientId);
+            } catch (Exception e) {
+                log.error("Trimming notifications of user {} failed: {}", recipientId, e.getMessage());
+            }
+        }
+        return purged;
+    }
+
+    private int trimRecipient(Long recipientId) {
+        List<Long> oldestKept = notificationRepository.findIdsByRecipientIdNewestFirst(
+                recipientId, PageRequest.of(maxPerUser - 1, 1));
+        if (oldestKept.isEmpty()) {
+            return 0;
+        }
+        Long keepFromId = oldestKept.get(0);
+
+        int purged = 0;
+        while (true) {
+            Integer batch = transactionTemplate.execute(status -> {
+                List<Long> ids = notificationRepository.findIdsByRecipientIdBefore(
+                        recipientId, keepFromId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                // Unread first and by its own count; a row flipped in between is left for the next batch
+                unreadCounter.adjust(recipientId, -notificationRepository.deleteUnreadByIdIn(ids));
+                notificationRepository.deleteReadByIdIn(ids);
+                return ids.size();
+            });
+            if (batch == null || batch == 0) {
+                return purged;
+            }
+            purged += batch;
+            purgedByCap.increment(batch);
+            if (batch < batchSize) {
+                return purged;
+            }
+        }
+    }
+}
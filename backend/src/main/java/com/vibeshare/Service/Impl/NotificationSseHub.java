@@ -0,0 +1,180 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.NotificationResponse;
+import com.vibeshare.DTO.Response.UserEventResponse;
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Service.UserEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * SSE connections for notifications, any number of tabs per user.
+ * <p>
+ * Stored notifications go out with their UserEventService seq as the event id,
+ * so a reconnecting EventSource sends it back as Last-Event-ID and gets what it
+ * missed from the user's event log. If the log no longer reaches back that far
+ * the client gets a "resync" event and reloads the list instead. Heartbeat
+ * comments keep proxies from closing idle streams and surface dead connections,
+ * which are dropped on the first failed write.
+ */
+@Component
+@Slf4j
+public class NotificationSseHub {
+
+    private final UserEventService userEventService;
+    private final Map<Long, Deque<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${notifications.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notifications.sse.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${notifications.sse.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    public NotificationSseHub(UserEventService userEventService) {
+        this.userEventService = userEventService;
+    }
+
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        // The browser reconnects on timeout, so a finite timeout just recycles the stream
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.compute(userId, (id, deque) -> {
+            Deque<Subscriber> connections = deque != null ? deque : new ConcurrentLinkedDeque<>();
+            connections.addLast(subscriber);
+            return connections;
+        });
+        evictOldest(userId);
+
+        // Sends before the response is committed are buffered by the emitter
+        if (send(subscriber, SseEmitter.event().reconnectTime(reconnectMs).comment("connected"))) {
+            replay(subscriber, lastEventId);
+        }
+        return emitter;
+    }
+
+    /** Pushes to every open connection of the user; seq is null for notifications that are not stored */
+    public void publish(Long userId, NotificationResponse notification, Long seq) {
+        Deque<Subscriber> connections = subscribers.get(userId);
+        if (connections == null) {
+            return;
+        }
+        for (Subscriber subscriber : connections) {
+            send(subscriber, event(notification, seq));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        int reaped = 0;
+        for (Deque<Subscriber> connections : subscribers.values()) {
+            for (Subscriber subscriber : connections) {
+                if (!send(subscriber, SseEmitter.event().comment("heartbeat"))) {
+                    reaped++;
+                }
+            }
+        }
+        if (reaped > 0) {
+            log.debug("Reaped {} dead notification streams", reaped);
+        }
+    }
+
+    /* ================= REPLAY ================= */
+
+    private void replay(Subscriber subscriber, String lastEventId) {
+        Long lastSeq = parseSeq(lastEventId);
+        if (lastSeq == null) {
+            return;
+        }
+
+        UserEventsSinceResponse missed = userEventService.since(subscriber.userId, lastSeq);
+        if (missed.isResync()) {
+            send(subscriber, SseEmitter.event().name("resync").data(missed.getLatestSeq()));
+            return;
+        }
+        for (UserEventResponse event : missed.getEvents()) {
+            if (UserEventService.TYPE_NOTIFICATION.equals(event.getType())
+                    && event.getPayload() instanceof NotificationResponse notification) {
+                if (!send(subscriber, event(notification, event.getSeq()))) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static Long parseSeq(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /* ================= CONNECTIONS ================= */
+
+    private SseEmitter.SseEventBuilder event(NotificationResponse notification, Long seq) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().data(notification);
+        return seq != null ? event.id(String.valueOf(seq)) : event;
+    }
+
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            // IOException for a dead socket, IllegalStateException once the emitter has completed
+            remove(subscriber);
+            try {
+                subscriber.emitter.complete();
+            } catch (Exception ignored) {
+                // already closed
+            }
+            return false;
+        }
+    }
+
+    private void evictOldest(Long userId) {
+        Deque<Subscriber> connections = subscribers.get(userId);
+        while (connections != null && connections.size() > maxConnectionsPerUser) {
+            Subscriber oldest = connections.pollFirst();
+            if (oldest != null) {
+                oldest.emitter.complete();
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (id, connections) -> {
+            connections.remove(subscriber);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    private static class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+    }
+}
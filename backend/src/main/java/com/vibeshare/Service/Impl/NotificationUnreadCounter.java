@@ -0,0 +1,66 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.NotificationCounter;
+import com.vibeshare.Repository.NotificationCounterRepository;
+import com.vibeshare.Repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps NotificationCounter in step with unread rows. Adjustments join the
+ * caller's transaction.
+ * <p>
+ * Writers call {@link #ensure} before the transaction that inserts rows, so
+ * the counter exists, counted from committed rows only, before any insert can
+ * adjust it. Counting lazily instead could miss an insert still in flight.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationUnreadCounter {
+
+    private final NotificationCounterRepository counterRepository;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public void adjust(Long userId, long delta) {
+        if (delta != 0) {
+            counterRepository.adjust(userId, delta);
+        }
+    }
+
+    /** Creates missing counter rows; must run outside the transaction that inserts notifications */
+    public void ensure(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> missing = new HashSet<>(userIds);
+        counterRepository.findExistingUserIds(missing).forEach(missing::remove);
+        missing.forEach(this::initialize);
+    }
+
+    public long get(Long userId) {
+        return counterRepository.findById(userId)
+                .map(NotificationCounter::getUnreadCount)
+                .orElseGet(() -> initialize(userId));
+    }
+
+    private long initialize(Long userId) {
+        try {
+            NotificationCounter counter = transactionTemplate.execute(status -> counterRepository.saveAndFlush(
+                    NotificationCounter.builder()
+                            .userId(userId)
+                            .unreadCount(notificationRepository.countUnread(userId))
+                            .build()));
+            return counter.getUnreadCount();
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first read created it
+            return counterRepository.findById(userId).map(NotificationCounter::getUnreadCount).orElse(0L);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Config.WebSocketSessions;
+import com.vibeshare.DTO.Response.UserSummary;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.PresenceService;
+import com.vibeshare.Service.UserDirectoryService;
+import com.vibeshare.Util.BoundedCache;
+import com.vibeshare.Util.HashedTimingWheel;
+import com.vibeshare.Util.KeyedSerialExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.CloseStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * In-memory presence. A user is online while at least one of their sessions is
+ * open, on this node or, in relay mode, on another one (seen through the
+ * broadcast user registry), so closing one of two tabs changes nothing. Only
+ * the online/offline transitions are recorded; they reach the users table in
+ * periodic bulk updates and are pushed to the user's followers and
+ * conversation peers on their own queue instead of a global topic.
+ * <p>
+ * Pushes for a user run one at a time in order and read the state when they
+ * run, so a quick reconnect can never leave the audience on "offline".
+ */
+@Service
+@Slf4j
+public class PresenceServiceImpl implements PresenceService {
+
+    private final UserRepository userRepository;
+    private final UserDirectoryService userDirectoryService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final WebSocketSessions webSocketSessions;
+    private final TransactionTemplate transactionTemplate;
+    // Per-user order for audience pushes
+    private final KeyedSerialExecutor presenceUpdates;
+
+    private final Map<Long, Set<String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Long> sessionOwners = new ConcurrentHashMap<>();
+    // sessionId -> deadline, pushed forward by any inbound frame including heartbeats
+    private final HashedTimingWheel<String> liveness;
+    private final long sessionTimeoutMs;
+    // Sessions that ended here but may still be listed by the user registry for a moment
+    private final BoundedCache<String, Boolean> endedSessions;
+    // Users whose state changed since the last flush, the state itself is read at flush time
+    private final Set<Long> pendingFlush = ConcurrentHashMap.newKeySet();
+    // Users last announced online by this node, so repeated "online" pushes are skipped
+    private final Set<Long> announcedOnline = ConcurrentHashMap.newKeySet();
+    // userId -> (audience userId -> email)
+    private final BoundedCache<Long, Map<Long, String>> audiences;
+
+    public PresenceServiceImpl(
+            UserRepository userRepository,
+            UserDirectoryService userDirectoryService,
+            SimpMessagingTemplate messagingTemplate,
+            SimpUserRegistry userRegistry,
+            WebSocketSessions webSocketSessions,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("deliveryExecutor") Executor deliveryExecutor,
+            @Value("${presence.audience-cache-size:10000}") int audienceCacheSize,
+            @Value("${presence.audience-ttl-ms:60000}") long audienceTtlMs,
+            @Value("${presence.session-timeout-ms:30000}") long sessionTimeoutMs,
+            @Value("${presence.wheel-tick-ms:1000}") long wheelTickMs,
+            @Value("${presence.max-pending-updates:10000}") int maxPendingUpdates
+    ) {
+        this.userRepository = userRepository;
+        this.userDirectoryService = userDirectoryService;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.webSocketSessions = webSocketSessions;
+        this.transactionTemplate = transactionTemplate;
+        this.presenceUpdates = new KeyedSerialExecutor(deliveryExecutor, maxPendingUpdates);
+        this.audiences = new BoundedCache<>(audienceCacheSize, audienceTtlMs);
+        this.endedSessions = new BoundedCache<>(audienceCacheSize, sessionTimeoutMs);
+        this.sessionTimeoutMs = sessionTimeoutMs;
+        // One revolution spans at least the timeout, so most sessions are visited once per deadline
+        this.liveness = new HashedTimingWheel<>(wheelTickMs, (int) Math.max(16, sessionTimeoutMs / wheelTickMs * 2));
+    }
+
+    @Override
+    public void sessionConnected(Long userId, String sessionId) {
+        sessionOwners.put(sessionId, userId);
+        liveness.schedule(sessionId, System.currentTimeMillis() + sessionTimeoutMs);
+
+        boolean[] cameOnline = {false};
+        sessions.compute(userId, (id, open) -> {
+            Set<String> set = open != null ? open : ConcurrentHashMap.newKeySet();
+            cameOnline[0] = set.isEmpty();
+            set.add(sessionId);
+            return set;
+        });
+        if (cameOnline[0]) {
+            transition(userId);
+        }
+    }
+
+    @Override
+    public void sessionDisconnected(Long userId, String sessionId) {
+        endedSessions.put(sessionId, Boolean.TRUE);
+        sessionOwners.remove(sessionId);
+        liveness.cancel(sessionId);
+
+        boolean[] wentOffline = {false};
+        sessions.computeIfPresent(userId, (id, open) -> {
+            if (!open.remove(sessionId)) {
+                return open;
+            }
+            wentOffline[0] = open.isEmpty();
+            return open.isEmpty() ? null : open;
+        });
+        if (wentOffline[0]) {
+            transition(userId);
+        }
+    }
+
+    @Override
+    public void sessionActive(String sessionId) {
+        liveness.touch(sessionId, System.currentTimeMillis() + sessionTimeoutMs);
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        return sessions.containsKey(userId) || hasSessionsElsewhere(userId);
+    }
+
+    // The registry lists this node's sessions too; in relay mode it also merges the other nodes' broadcasts
+    private boolean hasSessionsElsewhere(Long userId) {
+        SimpUser user = userRegistry.getUser(userDirectoryService.getById(userId).getEmail());
+        if (user == null) {
+            return false;
+        }
+        for (SimpSession session : user.getSessions()) {
+            if (!sessionOwners.containsKey(session.getId()) && endedSessions.get(session.getId()) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* ================= EXPIRY ================= */
+
+    // Transports that died without a disconnect (crashed client, dropped SockJS) stop heartbeating
+    @Scheduled(fixedDelayString = "${presence.wheel-tick-ms:1000}")
+    public void expireStaleSessions() {
+        liveness.advance(System.currentTimeMillis(), sessionId -> {
+            Long userId = sessionOwners.get(sessionId);
+            if (userId != null) {
+                log.debug("Session {} of user {} missed its heartbeats, expiring", sessionId, userId);
+                sessionDisconnected(userId, sessionId);
+                // A half-open socket would otherwise keep its subscriptions while the user shows offline;
+                // closing it makes the client reconnect and come back online
+                webSocketSessions.close(sessionId, CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        });
+    }
+
+    private void transition(Long userId) {
+        pendingFlush.add(userId);
+        boolean queued = presenceUpdates.execute(userId, () -> {
+            try {
+                publish(userId);
+            } catch (Exception e) {
+                log.warn("Presence update for user {} failed: {}", userId, e.getMessage());
+            }
+        });
+        if (!queued) {
+            // The flushed lastSeen still records it; the audience sees it on their next refresh
+            log.warn("Presence updates backed up, skipping presence update for user {}", userId);
+        }
+    }
+
+    // Reads the state now rather than when the transition was queued, so pushes can't land out of order
+    private void publish(Long userId) {
+        boolean online = isOnline(userId);
+        if (online) {
+            if (!announcedOnline.add(userId)) {
+                return;
+            }
+        } else {
+            announcedOnline.remove(userId);
+        }
+        notifyAudience(userId, online);
+    }
+
+    /* ================= TARGETED DELIVERY ================= */
+
+    private void notifyAudience(Long userId, boolean online) {
+        UserSummary user = userDirectoryService.getById(userId);
+        Map<String, Object> payload = Map.of(
+                "userId", userId,
+                "username", user.getUsername(),
+                "isOnline", online,
+                "lastSeen", LocalDateTime.now().toString()
+        );
+
+        audiences.computeIfAbsent(userId, this::loadAudience).forEach((audienceId, email) -> {
+            // Offline audience members pick up the state from the REST user data later
+            if (userRegistry.getUser(email) != null) {
+                messagingTemplate.convertAndSendToUser(email, "/queue/user.status", payload);
+            }
+        });
+    }
+
+    private Map<Long, String> loadAudience(Long userId) {
+        Map<Long, String> audience = new LinkedHashMap<>();
+        userRepository.findFollowerContacts(userId).forEach(row -> audience.put((Long) row[0], (String) row[1]));
+        userRepository.findConversationPeerContacts(userId).forEach(row -> audience.put((Long) row[0], (String) row[1]));
+        return audience;
+    }
+
+    /* ================= FLUSH ================= */
+
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:5000}")
+    public void flush() {
+        if (pendingFlush.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pendingFlush)) {
+            if (pendingFlush.remove(userId)) {
+                batch.add(userId);
+            }
+        }
+
+        List<Long> online = new ArrayList<>();
+        List<Long> offline = new ArrayList<>();
+        batch.forEach(userId -> (isOnline(userId) ? online : offline).add(userId));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!online.isEmpty()) {
+                    userRepository.markOnline(online);
+                }
+                if (!offline.isEmpty()) {
+                    userRepository.markOffline(offline, LocalDateTime.now());
+                }
+            });
+        } catch (Exception e) {
+            // Retried on the next flush with whatever the state is by then
+            pendingFlush.addAll(batch);
+            log.warn("Presence flush of {} users failed: {}", batch.size(), e.getMessage());
+        }
+    }
+}
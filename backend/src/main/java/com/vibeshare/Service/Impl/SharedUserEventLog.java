@@ -0,0 +1,115 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Response.UserEventResponse;
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Model.UserEvent;
+import com.vibeshare.Model.UserEventCounter;
+import com.vibeshare.Repository.UserEventCounterRepository;
+import com.vibeshare.Repository.UserEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reconnect log kept in the database, for relay mode where any node may
+ * append events for a user and any other node may serve the catch-up.
+ * <p>
+ * Each user has a counter row that is advanced and read in the same
+ * transaction as the event insert. The row lock orders concurrent appends, so
+ * a user's seqs are contiguous and commit in order, and a gap after the
+ * requested seq can only mean the events were pruned. Only the last
+ * per-user-capacity events are kept.
+ */
+@Component
+public class SharedUserEventLog {
+
+    private final UserEventCounterRepository counterRepository;
+    private final UserEventRepository eventRepository;
+    private final JsonMapper jsonMapper;
+    // Own transaction: events are appended after commit, inside the sender's completed transaction
+    private final TransactionTemplate appendTransaction;
+    private final int capacity;
+
+    public SharedUserEventLog(
+            UserEventCounterRepository counterRepository,
+            UserEventRepository eventRepository,
+            JsonMapper jsonMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${chat.events.per-user-capacity:256}") int capacity
+    ) {
+        this.counterRepository = counterRepository;
+        this.eventRepository = eventRepository;
+        this.jsonMapper = jsonMapper;
+        this.appendTransaction = new TransactionTemplate(transactionManager);
+        this.appendTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.capacity = capacity;
+    }
+
+    public long append(Long userId, String type, Object payload) {
+        String json = jsonMapper.writeValueAsString(payload);
+        try {
+            return appendTransaction.execute(status -> insert(userId, type, json));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the counter row first
+            return appendTransaction.execute(status -> insert(userId, type, json));
+        }
+    }
+
+    public UserEventsSinceResponse since(Long userId, long seq) {
+        long latest = counterRepository.findLastSeq(userId).orElse(0L);
+        if (seq > latest) {
+            // Not issued by this log, e.g. a client from before the switch to relay mode
+            return resync(latest);
+        }
+        if (seq == latest) {
+            return UserEventsSinceResponse.builder().events(List.of()).latestSeq(latest).resync(false).build();
+        }
+
+        List<UserEvent> rows = eventRepository.findAfter(userId, seq, PageRequest.of(0, capacity));
+        if (rows.isEmpty() || rows.get(0).getSeq() != seq + 1) {
+            return resync(latest);
+        }
+        List<UserEventResponse> events = rows.stream()
+                .map(row -> UserEventResponse.builder()
+                        .seq(row.getSeq())
+                        .type(row.getType())
+                        .payload(jsonMapper.readTree(row.getPayload()))
+                        .createdAt(row.getCreatedAt())
+                        .build())
+                .toList();
+        return UserEventsSinceResponse.builder()
+                .events(events)
+                // Appends may have committed after the counter was read
+                .latestSeq(Math.max(latest, rows.get(rows.size() - 1).getSeq()))
+                .resync(false)
+                .build();
+    }
+
+    private long insert(Long userId, String type, String payload) {
+        if (counterRepository.advance(userId) == 0) {
+            counterRepository.saveAndFlush(new UserEventCounter(userId, 1));
+        }
+        long seq = counterRepository.findLastSeq(userId).orElseThrow();
+        eventRepository.save(UserEvent.builder()
+                .userId(userId)
+                .seq(seq)
+                .type(type)
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build());
+        eventRepository.deleteUpTo(userId, seq - capacity);
+        return seq;
+    }
+
+    private UserEventsSinceResponse resync(long latest) {
+        return UserEventsSinceResponse.builder().events(List.of()).latestSeq(latest).resync(true).build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Service.TypingService;
+import com.vibeshare.Util.ConversationTopics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+public class TypingServiceImpl implements TypingService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // (conversationId, userId) -> who is currently shown as typing
+    private final Map<TypingKey, TypingState> active = new ConcurrentHashMap<>();
+
+    @Value("${chat.typing.idle-timeout-ms:5000}")
+    private long idleTimeoutMs;
+
+    @Override
+    public void onTyping(Long conversationId, Long userId, String username, boolean isTyping) {
+        TypingKey key = new TypingKey(conversationId, userId);
+        long now = System.currentTimeMillis();
+
+        if (isTyping) {
+            boolean[] started = {false};
+            active.compute(key, (k, state) -> {
+                if (state == null) {
+                    started[0] = true;
+                    return new TypingState(username, now);
+                }
+                state.lastSignalAt = now;
+                return state;
+            });
+            // Leading edge only, further keystrokes just extend the window
+            if (started[0]) {
+                broadcast(conversationId, username, true);
+            }
+        } else if (active.remove(key) != null) {
+            broadcast(conversationId, username, false);
+        }
+    }
+
+    /* ================= TRAILING STOP ================= */
+
+    @Scheduled(fixedDelayString = "${chat.typing.sweep-interval-ms:1000}")
+    public void expireIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        Iterator<Map.Entry<TypingKey, TypingState>> it = active.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<TypingKey, TypingState> entry = it.next();
+            TypingState state = entry.getValue();
+            if (state.lastSignalAt < cutoff && active.remove(entry.getKey(), state)) {
+                broadcast(entry.getKey().conversationId(), state.username, false);
+            }
+        }
+    }
+
+    private void broadcast(Long conversationId, String username, boolean isTyping) {
+        Map<String, Object> response = Map.of(
+                "username", username,
+                "isTyping", isTyping,
+                "conversationId", conversationId
+        );
+        messagingTemplate.convertAndSend(ConversationTopics.typing(conversationId), (Object) response);
+    }
+
+    private record TypingKey(Long conversationId, Long userId) {
+    }
+
+    private static class TypingState {
+        private final String username;
+        private volatile long lastSignalAt;
+
+        TypingState(String username, long lastSignalAt) {
+            this.username = username;
+            this.lastSignalAt = lastSignalAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Response.UserSummary;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Security.UserPrincipal;
+import com.vibeshare.Service.UserDirectoryService;
+import com.vibeshare.Util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.Principal;
+
+@Service
+public class UserDirectoryServiceImpl implements UserDirectoryService {
+
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, UserSummary> byId;
+    private final BoundedCache<String, Long> idByEmail;
+
+    public UserDirectoryServiceImpl(
+            UserRepository userRepository,
+            @Value("${user.directory.cache-size:10000}") int cacheSize,
+            @Value("${user.directory.ttl-ms:60000}") long ttlMs
+    ) {
+        this.userRepository = userRepository;
+        // evict() only reaches this node, the ttl bounds staleness on the others
+        this.byId = new BoundedCache<>(cacheSize, ttlMs);
+        this.idByEmail = new BoundedCache<>(cacheSize, ttlMs);
+    }
+
+    @Override
+    public UserSummary getById(Long id) {
+        UserSummary summary = byId.get(id);
+        if (summary != null) {
+            return summary;
+        }
+        return cache(userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found")));
+    }
+
+    @Override
+    public UserSummary getByEmail(String email) {
+        Long id = idByEmail.get(email);
+        if (id != null) {
+            UserSummary summary = byId.get(id);
+            if (summary != null) {
+                return summary;
+            }
+        }
+        return cache(userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found: " + email)));
+    }
+
+    @Override
+    public UserSummary resolve(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return getById(userPrincipal.getId());
+        }
+        if (principal == null) {
+            throw new RuntimeException("Unauthenticated");
+        }
+        return getByEmail(principal.getName());
+    }
+
+    @Override
+    public void evict(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evicting before commit would let a concurrent read cache the old row again
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(id);
+                }
+            });
+        }
+        remove(id);
+    }
+
+    private void remove(Long id) {
+        UserSummary summary = byId.get(id);
+        byId.remove(id);
+        if (summary != null) {
+            idByEmail.remove(summary.getEmail());
+        }
+    }
+
+    private UserSummary cache(User user) {
+        UserSummary summary = UserSummary.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .username(user.getUsername())
+                .profilePic(user.getProfilePic())
+                .build();
+        byId.put(summary.getId(), summary);
+        idByEmail.put(summary.getEmail(), summary.getId());
+        return summary;
+    }
+}
@@ -0,0 +1,200 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Response.UserEventResponse;
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Model.SequenceCounter;
+import com.vibeshare.Repository.SequenceCounterRepository;
+import com.vibeshare.Service.UserEventService;
+import com.vibeshare.Util.BoundedCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-user replay buffer for reconnect catch-up.
+ * <p>
+ * Sequence numbers are reserved in blocks from a counter row in the database,
+ * so they only ever grow for a user, across log eviction, restarts and clock
+ * changes alike. A block is reserved at startup, so every seq a client got
+ * before a restart is below anything this node reports as latest. Each log
+ * remembers the highest seq it can no longer replay (its floor); asking for
+ * anything below the floor means events were lost and the client must reload.
+ * <p>
+ * In relay mode a user's events are appended on whichever node handled the
+ * action, so a node-local log would miss the rest; the log then lives in the
+ * database instead, see {@link SharedUserEventLog}.
+ */
+@Service
+public class UserEventServiceImpl implements UserEventService {
+
+    private static final String SEQUENCE_NAME = "user_events";
+
+    private final SequenceCounterRepository sequenceCounterRepository;
+    // Set in relay mode only
+    private final SharedUserEventLog sharedLog;
+    // Own transaction: seqs are taken after commit, inside the sender's completed transaction
+    private final TransactionTemplate sequenceTransaction;
+    private final BoundedCache<Long, UserEventLog> logs;
+    private final int capacity;
+    private final int seqBlockSize;
+
+    // Reserved block [nextSeq, blockEnd), guarded by this
+    private long nextSeq;
+    private long blockEnd;
+
+    public UserEventServiceImpl(
+            SequenceCounterRepository sequenceCounterRepository,
+            PlatformTransactionManager transactionManager,
+            SharedUserEventLog sharedLog,
+            @Value("${chat.broker.mode:simple}") String brokerMode,
+            @Value("${chat.events.max-users:50000}") int maxUsers,
+            @Value("${chat.events.per-user-capacity:256}") int capacity,
+            @Value("${chat.events.seq-block-size:1000}") int seqBlockSize
+    ) {
+        this.sequenceCounterRepository = sequenceCounterRepository;
+        this.sharedLog = "relay".equalsIgnoreCase(brokerMode) ? sharedLog : null;
+        this.sequenceTransaction = new TransactionTemplate(transactionManager);
+        this.sequenceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.logs = new BoundedCache<>(maxUsers);
+        this.capacity = capacity;
+        this.seqBlockSize = seqBlockSize;
+    }
+
+    @PostConstruct
+    public synchronized void reserveInitialBlock() {
+        if (sharedLog == null) {
+            reserveBlock();
+        }
+    }
+
+    @Override
+    public long append(Long userId, String type, Object payload) {
+        if (sharedLog != null) {
+            return sharedLog.append(userId, type, payload);
+        }
+        return logFor(userId).append(type, payload);
+    }
+
+    @Override
+    public UserEventsSinceResponse since(Long userId, long seq) {
+        if (sharedLog != null) {
+            return sharedLog.since(userId, seq);
+        }
+        UserEventLog log = logs.get(userId);
+        if (log == null) {
+            // Nothing retained, only a client that is already current can skip the reload
+            long latest = latestSeq();
+            return UserEventsSinceResponse.builder()
+                    .events(List.of())
+                    .latestSeq(latest)
+                    .resync(seq < latest)
+                    .build();
+        }
+        return log.since(seq);
+    }
+
+    private UserEventLog logFor(Long userId) {
+        UserEventLog log = logs.get(userId);
+        if (log == null) {
+            synchronized (logs) {
+                log = logs.get(userId);
+                if (log == null) {
+                    log = new UserEventLog(capacity, latestSeq());
+                    logs.put(userId, log);
+                }
+            }
+        }
+        return log;
+    }
+
+    /* ================= SEQUENCE ================= */
+
+    private synchronized long nextSeq() {
+        if (nextSeq >= blockEnd) {
+            reserveBlock();
+        }
+        return nextSeq++;
+    }
+
+    // Highest seq this node may have handed out
+    private synchronized long latestSeq() {
+        return nextSeq - 1;
+    }
+
+    private void reserveBlock() {
+        long end;
+        try {
+            end = sequenceTransaction.execute(status -> reserve());
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the counter row first
+            end = sequenceTransaction.execute(status -> reserve());
+        }
+        nextSeq = end - seqBlockSize;
+        blockEnd = end;
+    }
+
+    private long reserve() {
+        if (sequenceCounterRepository.advance(SEQUENCE_NAME, seqBlockSize) == 0) {
+            // First reservation ever: start above the clock-based seqs older builds handed out
+            sequenceCounterRepository.saveAndFlush(
+                    new SequenceCounter(SEQUENCE_NAME, System.currentTimeMillis() * 1000 + seqBlockSize));
+        }
+        return sequenceCounterRepository.findNextValue(SEQUENCE_NAME).orElseThrow();
+    }
+
+    /* ================= LOG ================= */
+
+    private class UserEventLog {
+        private final UserEventResponse[] ring;
+        private int head = 0;
+        private int size = 0;
+        private long floor;
+
+        UserEventLog(int capacity, long floor) {
+            this.ring = new UserEventResponse[capacity];
+            this.floor = floor;
+        }
+
+        synchronized long append(String type, Object payload) {
+            // Taken under the log lock so the ring stays in seq order
+            long seq = nextSeq();
+            int slot = (head + size) % ring.length;
+            if (size == ring.length) {
+                floor = ring[head].getSeq();
+                head = (head + 1) % ring.length;
+            } else {
+                size++;
+            }
+            ring[slot] = UserEventResponse.builder()
+                    .seq(seq)
+                    .type(type)
+                    .payload(payload)
+                    .createdAt(Instant.now())
+                    .build();
+            return seq;
+        }
+
+        synchronized UserEventsSinceResponse since(long seq) {
+            long latest = size > 0 ? ring[(head + size - 1) % ring.length].getSeq() : floor;
+            if (seq < floor) {
+                return UserEventsSinceResponse.builder().events(List.of()).latestSeq(latest).resync(true).build();
+            }
+            List<UserEventResponse> events = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                UserEventResponse event = ring[(head + i) % ring.length];
+                if (event.getSeq() > seq) {
+                    events.add(event);
+                }
+            }
+            return UserEventsSinceResponse.builder().events(events).latestSeq(latest).resync(false).build();
+        }
+    }
+}
@@ -5,9 +5,11 @@ import com.vibeshare.DTO.Response.UserResponse;
 import com.vibeshare.Model.Follower;
 import com.vibeshare.Model.User;
 import com.vibeshare.Repository.FollowerRepository;
+import com.vibeshare.Repository.InboxEntryRepository;
 import com.vibeshare.Repository.PostRepository;
 import com.vibeshare.Repository.UserRepository;
 import com.vibeshare.Service.CloudinaryService;
+import com.vibeshare.Service.UserDirectoryService;
 import com.vibeshare.Service.UserService;
 import com.vibeshare.Util.AuthUtil;
 import jakarta.transaction.Transactional;
@@ -25,6 +27,8 @@ public class UserServiceImpl implements UserService {
     private final FollowerRepository followerRepository;
     private final CloudinaryService cloudinaryService;
     private final PostRepository postRepository;
+    private final InboxEntryRepository inboxEntryRepository;
+    private final UserDirectoryService userDirectoryService;
     
     /* ================= GET USER ================= */
 
@@ -53,6 +57,7 @@ public class UserServiceImpl implements UserService {
     /* ================= UPDATE USER ================= */
 
     @Override
+    @Transactional
     public UserResponse updateUser(Long id, UpdateUserRequest request) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -63,6 +68,8 @@ public class UserServiceImpl implements UserService {
         user.setEmail(request.getEmail());
 
         userRepository.save(user);
+        inboxEntryRepository.updatePeer(user.getId(), user.getUsername(), user.getProfilePic());
+        userDirectoryService.evict(user.getId());
 
         Long currentUserId = AuthUtil.getCurrentUserId();
         return toResponse(user, currentUserId);
@@ -71,6 +78,7 @@ public class UserServiceImpl implements UserService {
     /* ================= PROFILE PICTURE ================= */
 
     @Override
+    @Transactional
     public UserResponse updateProfilePicture(Long id, MultipartFile file) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
@@ -79,6 +87,8 @@ public class UserServiceImpl implements UserService {
         user.setProfilePic(imageUrl);
 
         userRepository.save(user);
+        inboxEntryRepository.updatePeer(user.getId(), user.getUsername(), user.getProfilePic());
+        userDirectoryService.evict(user.getId());
 
         Long currentUserId = AuthUtil.getCurrentUserId();
         return toResponse(user, currentUserId);
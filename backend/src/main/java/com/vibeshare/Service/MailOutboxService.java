@@ -0,0 +1,12 @@
+package com.vibeshare.Service;
+
+public interface MailOutboxService {
+
+    /**
+     * Queues a plain-text mail for background delivery and returns immediately.
+     * Returns false if the outbox is full and the mail was dropped.
+     */
+    boolean enqueue(String to, String subject, String text);
+
+    int pendingCount();
+}
@@ -0,0 +1,14 @@
+package com.vibeshare.Service;
+
+import com.vibeshare.DTO.MessageDTO;
+
+import java.util.List;
+
+public interface MessageArchiveService {
+
+    /** Moves messages older than the configured age out of the messages table, returns how many moved */
+    int archiveOldMessages();
+
+    /** Archived messages of a conversation with id < beforeId (newest archived when null), newest first */
+    List<MessageDTO> readBefore(Long conversationId, Long beforeId, int limit);
+}
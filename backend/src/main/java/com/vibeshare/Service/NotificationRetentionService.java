@@ -0,0 +1,7 @@
+package com.vibeshare.Service;
+
+public interface NotificationRetentionService {
+
+    /** Deletes read notifications past the retention age and trims history above the per-user cap, returns rows deleted */
+    int purge();
+}
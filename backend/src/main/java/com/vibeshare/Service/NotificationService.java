@@ -6,12 +6,15 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 public interface NotificationService {
-    NotificationResponse createAndSend(CreateNotificationRequest request);
-    List<NotificationResponse> getNotificationsForUser(Long userId);
-    List<NotificationResponse> getUnreadNotificationsForUser(Long userId);
-    void markAsRead(Long notificationId);
+    // Queues the notification for async delivery; false if it was dropped because the queue is full
+    boolean createAndSend(CreateNotificationRequest request);
+    List<NotificationResponse> getNotificationsForUser(Long userId, Long beforeId, int limit);
+    List<NotificationResponse> getUnreadNotificationsForUser(Long userId, int limit);
+    long getUnreadCount(Long userId);
+    // False if the notification belongs to someone else
+    boolean markAsRead(Long userId, Long notificationId);
     void markAllAsRead(Long userId);
 
     // ✅ ADD THIS METHOD
-    SseEmitter createSubscription(Long userId);
+    SseEmitter createSubscription(Long userId, String lastEventId);
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.vibeshare.Service;
+
+public interface PresenceService {
+
+    void sessionConnected(Long userId, String sessionId);
+
+    void sessionDisconnected(Long userId, String sessionId);
+
+    /** Any inbound frame of the session, heartbeats included, keeps it alive */
+    void sessionActive(String sessionId);
+
+    /** Whether the user has at least one live session on this node */
+    boolean isOnline(Long userId);
+}
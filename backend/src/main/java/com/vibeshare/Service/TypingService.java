@@ -0,0 +1,11 @@
+package com.vibeshare.Service;
+
+public interface TypingService {
+
+    /**
+     * Records a typing signal from a client. Only state changes are broadcast:
+     * the first "typing" of a burst, and one "stopped" when the client says so
+     * or has been idle for the configured window.
+     */
+    void onTyping(Long conversationId, Long userId, String username, boolean isTyping);
+}
@@ -0,0 +1,18 @@
+package com.vibeshare.Service;
+
+import com.vibeshare.DTO.Response.UserSummary;
+
+import java.security.Principal;
+
+public interface UserDirectoryService {
+
+    UserSummary getById(Long id);
+
+    UserSummary getByEmail(String email);
+
+    /** The authenticated user behind a request or STOMP session principal */
+    UserSummary resolve(Principal principal);
+
+    /** Drops cached entries for the user once the current transaction commits */
+    void evict(Long id);
+}
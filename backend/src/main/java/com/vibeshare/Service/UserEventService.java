@@ -0,0 +1,15 @@
+package com.vibeshare.Service;
+
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+
+public interface UserEventService {
+
+    String TYPE_MESSAGE = "MESSAGE";
+    String TYPE_READ = "READ";
+    String TYPE_NOTIFICATION = "NOTIFICATION";
+
+    /** Records an event pushed to the user and returns its sequence number */
+    long append(Long userId, String type, Object payload);
+
+    UserEventsSinceResponse since(Long userId, long seq);
+}
@@ -4,6 +4,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import com.vibeshare.Security.UserPrincipal;
 
+import java.security.Principal;
+
 public class AuthUtil {
 
     public static Long getCurrentUserId() {
@@ -11,4 +13,12 @@ public class AuthUtil {
         UserPrincipal principal = (UserPrincipal) auth.getPrincipal();
         return principal.getId();
     }
+
+    /** Resolves the UserPrincipal behind a STOMP session or request principal */
+    public static UserPrincipal getUserPrincipal(Principal principal) {
+        if (principal instanceof Authentication auth && auth.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
+        }
+        throw new RuntimeException("Unauthenticated");
+    }
 }
@@ -0,0 +1,65 @@
+package com.vibeshare.Util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU map for hot lookups that must not grow without bound.
+ * With a ttl, entries also expire that long after they were written, which
+ * bounds staleness when another node changes the underlying data.
+ */
+public class BoundedCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final long ttlMs;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, 0);
+    }
+
+    public BoundedCache(int maxSize, long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() != 0 && entry.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, ttlMs > 0 ? System.currentTimeMillis() + ttlMs : 0));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /** Loader runs outside the lock; a null result is not cached. */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.vibeshare.Util;
+
+/**
+ * Broker destinations of a conversation. Segments after /topic/ are joined
+ * with '.', the only form RabbitMQ's STOMP adapter accepts for topics, and
+ * the separator the broker registry's path matcher is set to.
+ */
+public final class ConversationTopics {
+
+    public static final String PREFIX = "/topic/conversation.";
+
+    private ConversationTopics() {
+    }
+
+    public static String messages(Long conversationId) {
+        return PREFIX + conversationId;
+    }
+
+    public static String typing(Long conversationId) {
+        return PREFIX + conversationId + ".typing";
+    }
+
+    public static String read(Long conversationId) {
+        return PREFIX + conversationId + ".read";
+    }
+}
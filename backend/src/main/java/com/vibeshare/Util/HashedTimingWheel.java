@@ -0,0 +1,91 @@
+package com.vibeshare.Util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel for large numbers of keys with frequently extended deadlines.
+ * <p>
+ * touch() only rewrites the key's deadline, it never moves the key between
+ * buckets. When a bucket comes due, keys whose deadline has moved on are
+ * re-hashed to their new bucket and the rest expire, so each tick costs only
+ * the keys in one bucket and an active key is moved at most once per timeout.
+ * advance() must be called from a single thread; the other methods are thread-safe.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMs;
+    private final Set<K>[] buckets;
+    private final Map<K, Long> deadlines = new ConcurrentHashMap<>();
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMs, int wheelSize) {
+        this.tickMs = tickMs;
+        this.buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMs;
+    }
+
+    public void schedule(K key, long deadlineMs) {
+        deadlines.put(key, deadlineMs);
+        bucketFor(deadlineMs).add(key);
+    }
+
+    /** Extends the deadline of a scheduled key, no-op for unknown keys */
+    public void touch(K key, long deadlineMs) {
+        deadlines.computeIfPresent(key, (k, current) -> Math.max(current, deadlineMs));
+    }
+
+    public void cancel(K key) {
+        // The bucket entry is dropped lazily when its bucket comes due
+        deadlines.remove(key);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    public void advance(long nowMs, Consumer<K> onExpire) {
+        long nowTick = nowMs / tickMs;
+        // After a long pause one revolution still visits every bucket once
+        long from = Math.max(lastTick + 1, nowTick - buckets.length + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Set<K> bucket = buckets[(int) (tick % buckets.length)];
+            for (Iterator<K> it = bucket.iterator(); it.hasNext(); ) {
+                K key = it.next();
+                Long deadline = deadlines.get(key);
+                if (deadline == null) {
+                    it.remove();
+                    continue;
+                }
+                // Due at tick granularity, a later deadline was touched or is revolutions away
+                if (deadline / tickMs > tick) {
+                    Set<K> target = bucketFor(deadline);
+                    if (target != bucket) {
+                        it.remove();
+                        target.add(key);
+                    }
+                    continue;
+                }
+                it.remove();
+                if (deadlines.remove(key, deadline)) {
+                    onExpire.accept(key);
+                } else if (deadlines.containsKey(key)) {
+                    // Touched while expiring, keep it on the wheel
+                    bucketFor(deadlines.getOrDefault(key, nowMs)).add(key);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+
+    private Set<K> bucketFor(long deadlineMs) {
+        return buckets[(int) ((deadlineMs / tickMs) % buckets.length)];
+    }
+}
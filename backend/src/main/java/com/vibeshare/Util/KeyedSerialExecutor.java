@@ -0,0 +1,118 @@
+package com.vibeshare.Util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a shared pool, one at a time and in submission order per key.
+ * <p>
+ * Each key with pending work occupies at most one pool thread; different keys
+ * run in parallel. A key drains a limited number of tasks per turn and then
+ * yields its thread, so one busy key cannot starve the others. execute() never
+ * blocks: above maxPending tasks the task is refused, and if the pool rejects a
+ * key's turn, that key's queued tasks are dropped.
+ */
+@Slf4j
+public class KeyedSerialExecutor {
+
+    private static final int TASKS_PER_TURN = 32;
+
+    private final Executor delegate;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<Object, Deque<Runnable>> queues = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor delegate, int maxPending) {
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+    }
+
+    /** Queues the task behind earlier tasks of the same key; false if it was refused */
+    public boolean execute(Object key, Runnable task) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            return false;
+        }
+
+        boolean[] first = {false};
+        queues.compute(key, (k, queue) -> {
+            Deque<Runnable> tasks = queue != null ? queue : new ArrayDeque<>();
+            first[0] = tasks.isEmpty();
+            tasks.addLast(task);
+            return tasks;
+        });
+        if (!first[0]) {
+            // The key's current turn picks it up
+            return true;
+        }
+
+        try {
+            delegate.execute(() -> drain(key));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // No turn will run for this key, so whatever queued up behind the task is dropped with it
+            Deque<Runnable> dropped = queues.remove(key);
+            int count = dropped != null ? dropped.size() : 1;
+            pending.addAndGet(-count);
+            if (count > 1) {
+                log.warn("Pool rejected key {}, dropped {} queued tasks", key, count);
+            }
+            return false;
+        }
+    }
+
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    private void drain(Object key) {
+        for (int ran = 0; ; ran++) {
+            if (ran > 0 && ran % TASKS_PER_TURN == 0 && yieldTurn(key)) {
+                return;
+            }
+
+            Runnable[] next = {null};
+            queues.computeIfPresent(key, (k, tasks) -> {
+                next[0] = tasks.peekFirst();
+                return tasks;
+            });
+            if (next[0] == null) {
+                return;
+            }
+
+            try {
+                next[0].run();
+            } catch (Throwable t) {
+                log.error("Task for key {} failed", key, t);
+            } finally {
+                pending.decrementAndGet();
+            }
+
+            // The head stays queued while it runs, so a concurrent execute() never starts a second turn
+            Deque<Runnable> remaining = queues.computeIfPresent(key, (k, tasks) -> {
+                tasks.pollFirst();
+                return tasks.isEmpty() ? null : tasks;
+            });
+            if (remaining == null) {
+                return;
+            }
+        }
+    }
+
+    // Hands the rest of the key's queue to a fresh turn; keeps draining here if the pool is full
+    private boolean yieldTurn(Object key) {
+        try {
+            delegate.execute(() -> drain(key));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Request.ChatRequest;
+import com.vibeshare.DTO.Response.ConversationResponse;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.ChatService;
+import com.vibeshare.Util.ConversationTopics;
+import com.vibeshare.VibeShareApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Two application nodes in chat.broker.mode=relay sharing one Postgres and one
+ * RabbitMQ STOMP broker. Node A is the test context, node B is started next to
+ * it; clients connect to either node over /ws-native. Skipped without Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(classes = VibeShareApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BrokerRelayIntegrationTest {
+
+    private static final int STOMP_PORT = 61613;
+    // RabbitMQ only lets guest in over loopback, the mapped port is not
+    private static final String BROKER_USER = "vibeshare";
+
+    @Container
+    private static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:16-alpine");
+
+    @Container
+    private static final GenericContainer<?> RABBIT = new GenericContainer<>("rabbitmq:3.13-alpine")
+            .withCopyToContainer(Transferable.of("[rabbitmq_stomp]."), "/etc/rabbitmq/enabled_plugins")
+            .withEnv("RABBITMQ_DEFAULT_USER", BROKER_USER)
+            .withEnv("RABBITMQ_DEFAULT_PASS", BROKER_USER)
+            .withExposedPorts(STOMP_PORT)
+            .waitingFor(Wait.forLogMessage(".*Server startup complete.*", 1))
+            .withStartupTimeout(Duration.ofMinutes(2));
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Value("${local.server.port}")
+    private int nodeAPort;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private SimpUserRegistry userRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ChatService chatService;
+
+    @DynamicPropertySource
+    static void nodeProperties(DynamicPropertyRegistry registry) {
+        nodeProperties().forEach((key, value) -> registry.add(key, () -> value));
+    }
+
+    @BeforeAll
+    static void startNodeB() {
+        Map<String, Object> properties = new LinkedHashMap<>(nodeProperties());
+        properties.put("server.port", 0);
+        nodeB = new SpringApplicationBuilder(VibeShareApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void userDestinationReachesSessionOnOtherNode() throws Exception {
+        User bob = createUser("bob");
+        StompSession session = connect(nodeBPort(), bob);
+        BlockingQueue<Map<String, Object>> received = subscribe(session, "/user/queue/relay-test");
+
+        // Node A has no session for bob, so the send is broadcast and resolved on node B
+        Map<String, Object> payload = Map.of("text", "hello from node A");
+        await().atMost(Duration.ofSeconds(15)).pollInterval(Duration.ofMillis(250)).until(() -> {
+            messagingTemplate.convertAndSendToUser(bob.getEmail(), "/queue/relay-test", payload);
+            return !received.isEmpty();
+        });
+
+        assertThat(received.poll()).containsEntry("text", "hello from node A");
+        session.disconnect();
+    }
+
+    @Test
+    void topicBroadcastReachesSubscribersOnEveryNode() throws Exception {
+        User alice = createUser("alice");
+        User carol = createUser("carol");
+        StompSession onA = connect(nodeAPort, alice);
+        StompSession onB = connect(nodeBPort(), carol);
+        BlockingQueue<Map<String, Object>> receivedOnA = subscribe(onA, "/topic/relay-test");
+        BlockingQueue<Map<String, Object>> receivedOnB = subscribe(onB, "/topic/relay-test");
+
+        // Published from node B, the broker fans it out to node A's session as well
+        SimpMessagingTemplate nodeBTemplate = nodeB.getBean(SimpMessagingTemplate.class);
+        await().atMost(Duration.ofSeconds(15)).pollInterval(Duration.ofMillis(250)).until(() -> {
+            nodeBTemplate.convertAndSend("/topic/relay-test", Map.of("text", "broadcast"));
+            return !receivedOnA.isEmpty() && !receivedOnB.isEmpty();
+        });
+
+        assertThat(receivedOnA.poll()).containsEntry("text", "broadcast");
+        assertThat(receivedOnB.poll()).containsEntry("text", "broadcast");
+        onA.disconnect();
+        onB.disconnect();
+    }
+
+    @Test
+    void userRegistryIsSharedAcrossNodes() throws Exception {
+        User dave = createUser("dave");
+        StompSession session = connect(nodeBPort(), dave);
+
+        // Registry snapshots are broadcast periodically, so node A sees the session after a while
+        await().atMost(Duration.ofSeconds(30)).pollInterval(Duration.ofMillis(500))
+                .until(() -> userRegistry.getUser(dave.getEmail()) != null);
+
+        session.disconnect();
+    }
+
+    @Test
+    void conversationTopicsWorkThroughTheRelay() throws Exception {
+        User alice = createUser("alice");
+        User carol = createUser("carol");
+        ChatRequest request = new ChatRequest();
+        request.setIsGroup(true);
+        request.setChatName("relay");
+        request.setUserIds(List.of(carol.getId()));
+        ConversationResponse conversation = chatService.createOrGetConversation(request, alice.getId());
+        Long conversationId = conversation.getId();
+
+        StompSession onA = connect(nodeAPort, alice);
+        StompSession onB = connect(nodeBPort(), carol);
+        BlockingQueue<Map<String, Object>> messages = subscribe(onA, ConversationTopics.messages(conversationId));
+        BlockingQueue<Map<String, Object>> typing = subscribe(onA, ConversationTopics.typing(conversationId));
+
+        // Carol's frames go through node B's /app handlers, the broadcasts reach alice on node A
+        await().atMost(Duration.ofSeconds(15)).pollInterval(Duration.ofMillis(250)).until(() -> {
+            onB.send("/app/chat.typing", Map.of("conversationId", conversationId, "isTyping", true));
+            onB.send("/app/chat.typing", Map.of("conversationId", conversationId, "isTyping", false));
+            return !typing.isEmpty();
+        });
+        await().atMost(Duration.ofSeconds(15)).pollInterval(Duration.ofMillis(250)).until(() -> {
+            onB.send("/app/chat.send", MessageDTO.builder()
+                    .conversationId(conversationId)
+                    .content("through the relay")
+                    .build());
+            return !messages.isEmpty();
+        });
+
+        assertThat(typing.poll()).containsEntry("username", carol.getUsername());
+        assertThat(messages.poll()).containsEntry("content", "through the relay");
+        // Both sessions survived, the broker accepted every destination
+        assertThat(onA.isConnected()).isTrue();
+        assertThat(onB.isConnected()).isTrue();
+        onA.disconnect();
+        onB.disconnect();
+    }
+
+    /* ================= HELPERS ================= */
+
+    private static Map<String, Object> nodeProperties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", POSTGRES.getJdbcUrl());
+        properties.put("spring.datasource.username", POSTGRES.getUsername());
+        properties.put("spring.datasource.password", POSTGRES.getPassword());
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("chat.broker.mode", "relay");
+        properties.put("chat.broker.relay.host", RABBIT.getHost());
+        properties.put("chat.broker.relay.port", RABBIT.getMappedPort(STOMP_PORT));
+        properties.put("chat.broker.relay.login", BROKER_USER);
+        properties.put("chat.broker.relay.passcode", BROKER_USER);
+        properties.put("chat.archive.enabled", false);
+        properties.put("notifications.retention.enabled", false);
+        properties.put("mail.outbox.enabled", false);
+        return properties;
+    }
+
+    private int nodeBPort() {
+        return Integer.parseInt(nodeB.getEnvironment().getProperty("local.server.port"));
+    }
+
+    private User createUser(String name) {
+        String handle = name + "-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = new User();
+        user.setEmail(handle + "@vibeshare.test");
+        user.setUsername(handle);
+        user.setName(name);
+        user.setVerified(true);
+        return userRepository.save(user);
+    }
+
+    private StompSession connect(int port, User user) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new JacksonJsonMessageConverter());
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + jwtService.generateToken(user));
+        return client.connectAsync("ws://localhost:" + port + "/ws-native", new WebSocketHttpHeaders(),
+                        connectHeaders, new StompSessionHandlerAdapter() {
+                        })
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private static BlockingQueue<Map<String, Object>> subscribe(StompSession session, String destination) {
+        BlockingQueue<Map<String, Object>> received = new LinkedBlockingQueue<>();
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<String, Object>) payload);
+            }
+        });
+        return received;
+    }
+}
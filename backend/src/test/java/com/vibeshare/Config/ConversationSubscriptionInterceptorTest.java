@@ -0,0 +1,64 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.Security.UserPrincipal;
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Util.ConversationTopics;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationSubscriptionInterceptorTest {
+
+    private static final long ALICE = 1L;
+
+    private final ConversationMembershipService membershipService = mock(ConversationMembershipService.class);
+    private final ConversationSubscriptions subscriptions = mock(ConversationSubscriptions.class);
+    private final ConversationSubscriptionInterceptor interceptor =
+            new ConversationSubscriptionInterceptor(membershipService, subscriptions);
+
+    @Test
+    void memberSubscribesToTheConversationAndItsSubTopics() {
+        when(membershipService.isMember(7L, ALICE)).thenReturn(true);
+
+        assertThatCode(() -> subscribe(ConversationTopics.messages(7L))).doesNotThrowAnyException();
+        assertThatCode(() -> subscribe(ConversationTopics.typing(7L))).doesNotThrowAnyException();
+
+        verify(subscriptions).subscribed(ALICE, "s1", "sub-" + ConversationTopics.typing(7L), 7L);
+    }
+
+    @Test
+    void nonMemberIsRefused() {
+        assertThatThrownBy(() -> subscribe(ConversationTopics.read(8L))).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void wildcardTopicsAreRefused() {
+        for (String destination : List.of("/topic/conversation.*", "/topic/#", "/topic/*.typing", "/topic/**")) {
+            assertThatThrownBy(() -> subscribe(destination)).isInstanceOf(AccessDeniedException.class);
+        }
+    }
+
+    private void subscribe(String destination) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId("sub-" + destination);
+        accessor.setDestination(destination);
+        accessor.setUser(new UsernamePasswordAuthenticationToken(
+                new UserPrincipal(ALICE, "alice@vibeshare.test", "alice", null), null, List.of()));
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        interceptor.preSend(message, mock(MessageChannel.class));
+    }
+}
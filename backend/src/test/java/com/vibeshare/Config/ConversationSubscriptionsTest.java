@@ -0,0 +1,68 @@
+package com.vibeshare.Config;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ConversationSubscriptionsTest {
+
+    private static final long ALICE = 1L;
+
+    private final MessageChannel clientInboundChannel = mock(MessageChannel.class);
+    private final ConversationSubscriptions subscriptions = new ConversationSubscriptions(clientInboundChannel);
+
+    @Test
+    void endUnsubscribesEverySessionFromThatConversationOnly() {
+        subscriptions.subscribed(ALICE, "s1", "sub-0", 7L);
+        subscriptions.subscribed(ALICE, "s1", "sub-1", 8L);
+        subscriptions.subscribed(ALICE, "s2", "sub-0", 7L);
+
+        subscriptions.end(7L, ALICE);
+
+        assertThat(unsubscribes()).containsExactlyInAnyOrder("s1/sub-0", "s2/sub-0");
+    }
+
+    @Test
+    void endedSubscriptionIsNotEndedAgain() {
+        subscriptions.subscribed(ALICE, "s1", "sub-0", 7L);
+
+        subscriptions.end(7L, ALICE);
+        subscriptions.end(7L, ALICE);
+
+        assertThat(unsubscribes()).containsExactly("s1/sub-0");
+    }
+
+    @Test
+    void forgetsClientUnsubscribesAndDisconnects() {
+        subscriptions.subscribed(ALICE, "s1", "sub-0", 7L);
+        subscriptions.subscribed(ALICE, "s2", "sub-0", 7L);
+
+        subscriptions.unsubscribed("s1", "sub-0");
+        subscriptions.disconnected("s2");
+        subscriptions.end(7L, ALICE);
+
+        verify(clientInboundChannel, never()).send(any());
+    }
+
+    private List<String> unsubscribes() {
+        ArgumentCaptor<Message<?>> sent = ArgumentCaptor.forClass(Message.class);
+        verify(clientInboundChannel, atLeast(0)).send(sent.capture());
+        return sent.getAllValues().stream()
+                .map(StompHeaderAccessor::wrap)
+                .peek(accessor -> assertThat(accessor.getCommand()).isEqualTo(StompCommand.UNSUBSCRIBE))
+                .map(accessor -> accessor.getSessionId() + "/" + accessor.getSubscriptionId())
+                .toList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.vibeshare.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboundBackpressureTest {
+
+    private static final String SESSION = "s1";
+    private static final String CHAT = "/topic/conversation.7";
+    private static final String TYPING = "/topic/conversation.7.typing";
+    private static final String PRESENCE = "/user/queue/user.status";
+
+    private final OutboundBackpressure backpressure = new OutboundBackpressure(new SimpleMeterRegistry());
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private WebSocketSession transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(backpressure, "ephemeralDropThreshold", 100L);
+
+        WebSocketSession raw = mock(WebSocketSession.class);
+        when(raw.getId()).thenReturn(SESSION);
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        backpressure.decorate(handler).afterConnectionEstablished(raw);
+
+        // The session the STOMP handler writes to, counting writes against the backlog
+        ArgumentCaptor<WebSocketSession> counting = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(counting.capture());
+        transport = counting.getValue();
+    }
+
+    @Test
+    void ephemeralFramesAreDroppedAboveTheThresholdWhileChatPasses() {
+        assertThat(backpressure.preSend(frame(CHAT, 200), channel)).isNotNull();
+
+        assertThat(backpressure.preSend(frame(TYPING, 10), channel)).isNull();
+        assertThat(backpressure.preSend(frame(PRESENCE, 10), channel)).isNull();
+        assertThat(backpressure.preSend(frame(CHAT, 200), channel)).isNotNull();
+    }
+
+    @Test
+    void writtenFramesReleaseTheBacklog() throws Exception {
+        backpressure.preSend(frame(CHAT, 200), channel);
+        backpressure.preSend(frame(CHAT, 200), channel);
+
+        transport.sendMessage(new TextMessage("MESSAGE\ndestination:" + CHAT + "\n\n" + "x".repeat(200)));
+        assertThat(backpressure.preSend(frame(TYPING, 10), channel)).isNull();
+
+        transport.sendMessage(new TextMessage("MESSAGE\ndestination:" + CHAT + "\n\n" + "x".repeat(200)));
+        assertThat(backpressure.preSend(frame(TYPING, 10), channel)).isNotNull();
+    }
+
+    @Test
+    void errorFramesDoNotReleaseQueuedFrames() throws Exception {
+        backpressure.preSend(frame(CHAT, 200), channel);
+
+        // Written directly by the STOMP handler, it never passed preSend
+        transport.sendMessage(new TextMessage("ERROR\nmessage:Not a member\n\n"));
+
+        assertThat(backpressure.preSend(frame(TYPING, 10), channel)).isNull();
+    }
+
+    @Test
+    void heartbeatsAreNeitherCountedNorDropped() throws Exception {
+        backpressure.preSend(frame(CHAT, 200), channel);
+        transport.sendMessage(new TextMessage("\n"));
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.HEARTBEAT);
+        accessor.setSessionId(SESSION);
+        Message<byte[]> heartbeat = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThat(backpressure.preSend(heartbeat, channel)).isNotNull();
+        assertThat(backpressure.preSend(frame(TYPING, 10), channel)).isNull();
+    }
+
+    private static Message<byte[]> frame(String destination, int size) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[size], accessor.getMessageHeaders());
+    }
+}
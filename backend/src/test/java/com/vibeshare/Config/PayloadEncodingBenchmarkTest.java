@@ -0,0 +1,141 @@
+package com.vibeshare.Config;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Response.PostResponse;
+import com.vibeshare.Model.Message;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bytes on the wire and encoding cost of JSON against CBOR, for a feed page
+ * as served by GET /api/posts/feed and for a burst of chat messages, each
+ * message its own frame. Also times the JSON to CBOR re-encoding that
+ * PayloadEncodingInterceptor does for STOMP frames. Excluded from the default
+ * build, run with {@code mvn test -Dgroups=benchmark -DexcludedGroups=none}.
+ */
+@Tag("benchmark")
+class PayloadEncodingBenchmarkTest {
+
+    private static final int FEED_PAGE = 30;
+    private static final int BURST = 200;
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int ROUNDS = 10000;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+
+    @Test
+    void feedPage() {
+        List<PostResponse> page = feedPage();
+
+        Result json = measure(() -> jsonMapper.writeValueAsBytes(page));
+        Result cbor = measure(() -> cborMapper.writeValueAsBytes(page));
+
+        report("Feed page of " + FEED_PAGE + " posts", json, cbor);
+        assertThat(cbor.bytes()).isLessThan(json.bytes());
+    }
+
+    @Test
+    void messageBurst() {
+        List<MessageDTO> burst = messageBurst();
+
+        Result json = measure(() -> encodeEach(burst, jsonMapper::writeValueAsBytes));
+        Result cbor = measure(() -> encodeEach(burst, cborMapper::writeValueAsBytes));
+        // What a CBOR session costs on STOMP: the broker encodes JSON, the interceptor re-encodes it
+        List<byte[]> frames = burst.stream().map(jsonMapper::writeValueAsBytes).toList();
+        Result transcoded = measure(() -> encodeEach(frames,
+                frame -> cborMapper.writeValueAsBytes(jsonMapper.readTree(frame))));
+
+        report("Burst of " + BURST + " messages", json, cbor);
+        System.out.printf("  json->cbor: %8.1f us, %7d bytes%n", transcoded.micros(), transcoded.bytes());
+        assertThat(cbor.bytes()).isLessThan(json.bytes());
+        assertThat(transcoded.bytes()).isLessThan(json.bytes());
+    }
+
+    private static <T> byte[] encodeEach(List<T> items, Function<T, byte[]> encoder) {
+        // Only the total size matters here
+        int size = 0;
+        for (T item : items) {
+            size += encoder.apply(item).length;
+        }
+        return new byte[size];
+    }
+
+    private static Result measure(Supplier<byte[]> encode) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            encode.get();
+        }
+        int bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            bytes = encode.get().length;
+        }
+        return new Result((System.nanoTime() - start) / 1000.0 / ROUNDS, bytes);
+    }
+
+    private static void report(String label, Result json, Result cbor) {
+        System.out.printf("%s:%n", label);
+        System.out.printf("  json: %8.1f us, %7d bytes%n", json.micros(), json.bytes());
+        System.out.printf("  cbor: %8.1f us, %7d bytes (%.0f%%)%n",
+                cbor.micros(), cbor.bytes(), 100.0 * cbor.bytes() / json.bytes());
+    }
+
+    private record Result(double micros, int bytes) {
+    }
+
+    /* ================= FIXTURES ================= */
+
+    private static List<PostResponse> feedPage() {
+        List<PostResponse> page = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < FEED_PAGE; i++) {
+            boolean image = i % 3 == 0;
+            page.add(new PostResponse(
+                    1000L + i,
+                    10L + i % 7,
+                    "user" + i % 7,
+                    "User Number " + i % 7,
+                    "Weekend trip to the coast, the weather finally held up. Post " + i,
+                    image ? "https://res.cloudinary.com/vibeshare/image/upload/v1/posts/" + (1000 + i) + ".jpg" : null,
+                    null,
+                    now.minusMinutes(i * 17L),
+                    i * 13 % 250,
+                    i * 97 % 4000,
+                    image ? "IMAGE" : "TEXT",
+                    i % 2 == 0,
+                    i % 5 == 0,
+                    i % 3 != 0
+            ));
+        }
+        return page;
+    }
+
+    private static List<MessageDTO> messageBurst() {
+        List<MessageDTO> burst = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < BURST; i++) {
+            burst.add(MessageDTO.builder()
+                    .id(50_000L + i)
+                    .conversationId(7L)
+                    .senderId(1L + i % 4)
+                    .senderName("member" + i % 4)
+                    .content(i % 10 == 0 ? "ok" : "On my way, should be there in about " + i % 30 + " minutes")
+                    .timestamp(now.plusNanos(i * 1_000_000L))
+                    .sequence(9_000L + i)
+                    .type(Message.MessageType.TEXT)
+                    .isRead(false)
+                    .build());
+        }
+        return burst;
+    }
+}
@@ -0,0 +1,70 @@
+package com.vibeshare.Config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PayloadEncodingInterceptorTest {
+
+    private static final String SESSION = "s1";
+    private static final String JSON = "{\"id\":42,\"content\":\"hello\"}";
+
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final PayloadEncodingInterceptor interceptor =
+            new PayloadEncodingInterceptor(JsonMapper.builder().build(), cborMapper);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setUp() {
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId(SESSION);
+        connect.setNativeHeader("accept-content", "application/cbor");
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(PayloadEncodingInterceptor.NATIVE_TRANSPORT_ATTR, true);
+        connect.setSessionAttributes(attributes);
+        interceptor.inbound().preSend(MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), channel);
+    }
+
+    @Test
+    void jsonFramesAreReencodedForCborSessions() {
+        Message<?> sent = interceptor.preSend(frame(JSON.getBytes(StandardCharsets.UTF_8)), channel);
+
+        assertThat(SimpMessageHeaderAccessor.getContentType(sent.getHeaders()))
+                .isEqualTo(PayloadEncodingInterceptor.CBOR_FRAME_TYPE);
+        assertThat(cborMapper.readTree((byte[]) sent.getPayload()).get("content").asString()).isEqualTo("hello");
+    }
+
+    @Test
+    void equalBodiesInSeparateArraysShareOneTranscoding() {
+        // The relay gives every subscriber its own copy of the body
+        Message<?> first = interceptor.preSend(frame(JSON.getBytes(StandardCharsets.UTF_8)), channel);
+        Message<?> second = interceptor.preSend(frame(JSON.getBytes(StandardCharsets.UTF_8)), channel);
+
+        assertThat(second.getPayload()).isSameAs(first.getPayload());
+    }
+
+    private static Message<byte[]> frame(byte[] payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION);
+        accessor.setDestination("/topic/conversation.7");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,93 @@
+package com.vibeshare.Controller;
+
+import com.vibeshare.Security.UserPrincipal;
+import com.vibeshare.Service.NotificationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationControllerTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final NotificationController controller = new NotificationController(notificationService);
+
+    @BeforeEach
+    void setUp() {
+        UserPrincipal alice = new UserPrincipal(ALICE, "alice@vibeshare.test", "alice", null);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(alice, null, List.of()));
+        when(notificationService.createSubscription(anyLong(), any())).thenReturn(new SseEmitter());
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void streamOfAnotherUserIsForbidden() {
+        ResponseEntity<SseEmitter> response = controller.streamNotifications(BOB, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verify(notificationService, never()).createSubscription(anyLong(), any());
+    }
+
+    @Test
+    void streamIsOpenedForTheCaller() {
+        assertThat(controller.streamNotifications(ALICE, null, "41").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(controller.streamNotifications(null, null, null).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        verify(notificationService).createSubscription(ALICE, "41");
+        verify(notificationService).createSubscription(ALICE, null);
+    }
+
+    @Test
+    void notificationsOfAnotherUserAreForbidden() {
+        assertThat(controller.getForUser(BOB, null, 30).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(controller.getUnread(BOB, 30).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(controller.getUnreadCount(BOB).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(controller.markAllRead(BOB).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+
+        verify(notificationService, never()).getNotificationsForUser(any(), any(), anyInt());
+        verify(notificationService, never()).getUnreadNotificationsForUser(any(), anyInt());
+        verify(notificationService, never()).getUnreadCount(any());
+        verify(notificationService, never()).markAllAsRead(any());
+    }
+
+    @Test
+    void callerReadsOwnUnreadCount() {
+        when(notificationService.getUnreadCount(ALICE)).thenReturn(3L);
+
+        ResponseEntity<Map<String, Long>> response = controller.getUnreadCount(ALICE);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("count", 3L);
+    }
+
+    @Test
+    void markingSomeoneElsesNotificationIsForbidden() {
+        when(notificationService.markAsRead(ALICE, 7L)).thenReturn(false);
+
+        assertThat(controller.markRead(7L).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+}
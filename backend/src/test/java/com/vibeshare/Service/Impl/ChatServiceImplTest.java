@@ -0,0 +1,110 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.ConversationMember;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.InboxEntryRepository;
+import com.vibeshare.Repository.MessageRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.CloudinaryService;
+import com.vibeshare.Service.ConversationMembershipService;
+import com.vibeshare.Service.MessageArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatServiceImplTest {
+
+    private static final long GROUP = 7L;
+    private static final long ALICE = 1L;
+    private static final long CAROL = 3L;
+
+    private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+    private final ConversationMemberRepository memberRepository = mock(ConversationMemberRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ConversationMembershipService membershipService = mock(ConversationMembershipService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ConversationMessageWriter conversationMessageWriter = mock(ConversationMessageWriter.class);
+    private ChatServiceImpl chatService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(conversationRepository.findById(GROUP))
+                .thenReturn(Optional.of(Conversation.builder().id(GROUP).isGroup(true).build()));
+        User carol = new User();
+        carol.setId(CAROL);
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(carol));
+        when(memberRepository.findExistingUserIds(any(), anyCollection())).thenReturn(List.of());
+        when(memberRepository.saveAll(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.getArgument(0)));
+
+        chatService = new ChatServiceImpl(conversationRepository, mock(MessageRepository.class),
+                mock(InboxEntryRepository.class), memberRepository, userRepository, mock(CloudinaryService.class),
+                mock(InboxProjection.class), conversationMessageWriter, mock(DirectConversationIndex.class),
+                mock(MessageSearchIndex.class), mock(MessageArchiveService.class), membershipService, transactionTemplate);
+    }
+
+    @Test
+    void plainMemberCannotAddMembers() {
+        when(memberRepository.findRole(GROUP, ALICE)).thenReturn(Optional.of(ConversationMember.Role.MEMBER));
+
+        assertThatThrownBy(() -> chatService.addMembers(GROUP, ALICE, List.of(CAROL)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(memberRepository, never()).saveAll(anyCollection());
+        verify(membershipService, never()).onJoined(any(), any());
+    }
+
+    @Test
+    void adminAddsMembersAsPlainMembers() {
+        when(memberRepository.findRole(GROUP, ALICE)).thenReturn(Optional.of(ConversationMember.Role.ADMIN));
+
+        assertThat(chatService.addMembers(GROUP, ALICE, List.of(CAROL))).hasSize(1);
+        verify(membershipService).onJoined(GROUP, CAROL);
+    }
+
+    @Test
+    void writeStillCommittingAtTheTimeoutIsReportedPending() {
+        ReflectionTestUtils.setField(chatService, "sendTimeoutMs", 20L);
+        // Picked up by the stripe, so it can no longer be withdrawn
+        CompletableFuture<MessageDTO> committing = new CompletableFuture<>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                return false;
+            }
+        };
+        when(conversationMessageWriter.submit(any(), any())).thenReturn(committing);
+
+        MessageDTO sent = chatService.sendMessage(MessageDTO.builder().conversationId(GROUP).content("hi").build(), ALICE);
+
+        assertThat(sent.getPending()).isTrue();
+        assertThat(sent.getSenderId()).isEqualTo(ALICE);
+    }
+
+    @Test
+    void builtMembersDefaultToMemberRole() {
+        ConversationMember member = ConversationMember.builder().conversationId(GROUP).userId(CAROL).build();
+
+        assertThat(member.getRole()).isEqualTo(ConversationMember.Role.MEMBER);
+        assertThat(member.getJoinedAt()).isNotNull();
+    }
+}
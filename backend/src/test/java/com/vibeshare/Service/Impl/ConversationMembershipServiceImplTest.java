@@ -0,0 +1,114 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Config.ConversationSubscriptions;
+import com.vibeshare.Model.MembershipChange;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MembershipChangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationMembershipServiceImplTest {
+
+    private static final long CONVERSATION = 7L;
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+
+    private final ConversationMemberRepository memberRepository = mock(ConversationMemberRepository.class);
+    private final MembershipChangeRepository changeRepository = mock(MembershipChangeRepository.class);
+    private final ConversationSubscriptions subscriptions = mock(ConversationSubscriptions.class);
+    // Rows written by other nodes
+    private final List<MembershipChange> changes = new ArrayList<>();
+    private ConversationMembershipServiceImpl membership;
+
+    @BeforeEach
+    void setUp() {
+        when(changeRepository.findSince(any())).thenAnswer(invocation -> List.copyOf(changes));
+        when(changeRepository.save(any(MembershipChange.class))).thenAnswer(invocation -> {
+            MembershipChange change = invocation.getArgument(0);
+            change.setId(1000L + changes.size());
+            return change;
+        });
+        membership = membership("relay");
+    }
+
+    @Test
+    void leaveOnThisNodeEvictsAndEndsSubscriptions() {
+        when(memberRepository.findUserIdsByConversationId(CONVERSATION)).thenReturn(List.of(ALICE, BOB));
+        assertThat(membership.isMember(CONVERSATION, BOB)).isTrue();
+
+        membership.onLeft(CONVERSATION, BOB);
+
+        assertThat(membership.isMember(CONVERSATION, BOB)).isFalse();
+        verify(subscriptions).end(CONVERSATION, BOB);
+        verify(changeRepository).save(any(MembershipChange.class));
+    }
+
+    @Test
+    void leaveOnAnotherNodeIsPickedUpBeforeTheTtl() {
+        when(memberRepository.findUserIdsByConversationId(CONVERSATION)).thenReturn(List.of(ALICE, BOB));
+        assertThat(membership.isMember(CONVERSATION, BOB)).isTrue();
+
+        when(memberRepository.findUserIdsByConversationId(CONVERSATION)).thenReturn(List.of(ALICE));
+        changes.add(change(1L, BOB, true));
+        membership.syncChanges();
+
+        assertThat(membership.isMember(CONVERSATION, BOB)).isFalse();
+        verify(subscriptions).end(CONVERSATION, BOB);
+    }
+
+    @Test
+    void changesInTheOverlapAreAppliedOnce() {
+        when(memberRepository.findUserIdsByConversationId(CONVERSATION)).thenReturn(List.of(ALICE));
+        changes.add(change(1L, BOB, true));
+
+        membership.syncChanges();
+        membership.syncChanges();
+
+        verify(subscriptions, times(1)).end(CONVERSATION, BOB);
+    }
+
+    @Test
+    void rejoinedUserKeepsSubscriptions() {
+        when(memberRepository.findUserIdsByConversationId(CONVERSATION)).thenReturn(List.of(ALICE, BOB));
+        changes.add(change(1L, BOB, true));
+        changes.add(change(2L, BOB, false));
+
+        membership.syncChanges();
+
+        verify(subscriptions, never()).end(any(), any());
+    }
+
+    @Test
+    void simpleBrokerNeitherRecordsNorPolls() {
+        membership = membership("simple");
+
+        membership.onJoined(CONVERSATION, BOB);
+        membership.syncChanges();
+
+        verify(changeRepository, never()).save(any());
+        verify(changeRepository, never()).findSince(any());
+    }
+
+    private ConversationMembershipServiceImpl membership(String brokerMode) {
+        return new ConversationMembershipServiceImpl(mock(ConversationRepository.class), memberRepository,
+                changeRepository, subscriptions, mock(TransactionTemplate.class), 100, 60000, brokerMode, 30000, 3600000);
+    }
+
+    private static MembershipChange change(long id, long userId, boolean removed) {
+        return new MembershipChange(id, CONVERSATION, userId, removed, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,97 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Response.UserSummary;
+import com.vibeshare.Model.Conversation;
+import com.vibeshare.Model.Message;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.ConversationMemberRepository;
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MessageRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserDirectoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationMessageWriterTest {
+
+    private static final long CONVERSATION = 7L;
+    private static final long ALICE = 1L;
+
+    private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private ConversationMessageWriter writer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        AtomicLong ids = new AtomicLong(100);
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> {
+            Message message = invocation.getArgument(0);
+            message.setId(ids.incrementAndGet());
+            return message;
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User user = new User();
+            user.setId(invocation.getArgument(0));
+            return user;
+        });
+        UserDirectoryService userDirectoryService = mock(UserDirectoryService.class);
+        when(userDirectoryService.getById(anyLong())).thenReturn(new UserSummary(ALICE, null, "alice", null));
+        ConversationMemberRepository memberRepository = mock(ConversationMemberRepository.class);
+        when(memberRepository.findContactsByConversationId(CONVERSATION)).thenReturn(List.of());
+
+        writer = new ConversationMessageWriter(conversationRepository, memberRepository, messageRepository, userRepository,
+                mock(InboxProjection.class), userDirectoryService, mock(ApplicationEventPublisher.class), transactionTemplate);
+        ReflectionTestUtils.setField(writer, "stripeCount", 1);
+        ReflectionTestUtils.setField(writer, "maxBatch", 64);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 100);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+    }
+
+    @Test
+    void sequenceContinuesFromTheLockedRow() throws Exception {
+        // Another node already wrote up to 41
+        Conversation conversation = Conversation.builder().id(CONVERSATION).lastSequence(41L).build();
+        when(conversationRepository.findByIdForUpdate(CONVERSATION)).thenReturn(Optional.of(conversation));
+
+        MessageDTO first = writer.submit(message("one"), ALICE).get(5, TimeUnit.SECONDS);
+        MessageDTO second = writer.submit(message("two"), ALICE).get(5, TimeUnit.SECONDS);
+
+        assertThat(first.getSequence()).isEqualTo(42L);
+        assertThat(second.getSequence()).isEqualTo(43L);
+        assertThat(conversation.getLastSequence()).isEqualTo(43L);
+        verify(conversationRepository, never()).findById(any());
+    }
+
+    private static MessageDTO message(String content) {
+        return MessageDTO.builder().conversationId(CONVERSATION).content(content).build();
+    }
+}
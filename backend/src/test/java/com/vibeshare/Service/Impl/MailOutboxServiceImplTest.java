@@ -0,0 +1,102 @@
+package com.vibeshare.Service.Impl;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        classes = {MailOutboxServiceImpl.class, MailOutboxServiceImplTest.SmtpConfig.class},
+        properties = {
+                "spring.mail.username=noreply@vibeshare.test",
+                "mail.outbox.capacity=3",
+                "mail.outbox.batch-size=2",
+                "mail.outbox.initial-backoff-ms=50",
+                "mail.outbox.max-backoff-ms=50"
+        }
+)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class MailOutboxServiceImplTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailOutboxServiceImpl outbox;
+
+    @Test
+    void deliversQueuedMailsInBatches() throws Exception {
+        assertThat(outbox.enqueue("a@vibeshare.test", "Verify", "code 1")).isTrue();
+        assertThat(outbox.enqueue("b@vibeshare.test", "Verify", "code 2")).isTrue();
+        assertThat(outbox.enqueue("c@vibeshare.test", "Reset", "code 3")).isTrue();
+
+        outbox.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received[0].getFrom()[0].toString()).isEqualTo("noreply@vibeshare.test");
+        assertThat(outbox.pendingCount()).isZero();
+    }
+
+    @Test
+    void rejectsMailsAboveCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(outbox.enqueue("user" + i + "@vibeshare.test", "Verify", "code")).isTrue();
+        }
+
+        assertThat(outbox.enqueue("late@vibeshare.test", "Verify", "code")).isFalse();
+        assertThat(outbox.pendingCount()).isEqualTo(3);
+    }
+
+    @Test
+    void retriesAfterBackoffWhenServerIsDown() throws Exception {
+        greenMail.stop();
+        outbox.enqueue("a@vibeshare.test", "Verify", "code");
+
+        outbox.dispatch();
+        assertThat(outbox.pendingCount()).isEqualTo(1);
+
+        greenMail.start();
+        Thread.sleep(100);
+        outbox.dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(outbox.pendingCount()).isZero();
+    }
+
+    @Test
+    void flushesPendingMailsOnShutdown() {
+        greenMail.stop();
+        outbox.enqueue("a@vibeshare.test", "Verify", "code");
+        outbox.dispatch();
+
+        // Still backing off, shutdown sends it anyway
+        greenMail.start();
+        outbox.shutdown();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(outbox.pendingCount()).isZero();
+    }
+
+    @TestConfiguration
+    static class SmtpConfig {
+
+        @Bean
+        JavaMailSender javaMailSender() {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(ServerSetupTest.SMTP.getPort());
+            return sender;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.MessageDTO;
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Event.MessageSentEvent;
+import com.vibeshare.Model.Message;
+import com.vibeshare.Service.NotificationService;
+import com.vibeshare.Service.UserEventService;
+import com.vibeshare.Util.ConversationTopics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Cost of fanning one message out to a 1,000-member group: the old
+ * per-member path, which encoded the message for every push, against
+ * MessageDeliveryWorker, which encodes it once. Half the members
+ * are looking at the conversation, the rest are online elsewhere. Excluded
+ * from the default build, run with
+ * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none}.
+ */
+@Tag("benchmark")
+class MessageFanOutBenchmarkTest {
+
+    private static final int MEMBERS = 1000;
+    private static final long CONVERSATION = 7L;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 1000;
+
+    private final CountingChannel channel = new CountingChannel();
+    private final CountingConverter converter = new CountingConverter();
+    private final SimpMessagingTemplate template = new SimpMessagingTemplate(channel);
+    private final DefaultSimpUserRegistry userRegistry = new DefaultSimpUserRegistry();
+    private final NotificationService notificationService = mock(NotificationService.class, withSettings().stubOnly());
+
+    @Test
+    void fanOutToAThousandMemberGroup() {
+        template.setMessageConverter(converter);
+        Map<Long, String> recipients = connectMembers();
+        MessageDTO message = message();
+        MessageSentEvent event = new MessageSentEvent(message, recipients);
+        MessageDeliveryWorker worker = new MessageDeliveryWorker(notificationService, new NoopUserEventService(),
+                template, userRegistry, Runnable::run, 10000);
+        ReflectionTestUtils.setField(worker, "batchSize", 200);
+
+        Result before = measure(() -> perMemberFanOut(message, recipients));
+        Result after = measure(() -> worker.onMessageSent(event));
+
+        System.out.printf("Fan-out to %d members, per message:%n", MEMBERS);
+        System.out.printf("  before: %8.1f us, %5d serializations, %5d frames, %8d bytes%n",
+                before.micros(), before.serializations(), before.frames(), before.bytes());
+        System.out.printf("  after:  %8.1f us, %5d serializations, %5d frames, %8d bytes%n",
+                after.micros(), after.serializations(), after.frames(), after.bytes());
+
+        // One topic broadcast plus one push per recipient, each encoded on its own
+        assertThat(before.serializations()).isEqualTo(MEMBERS);
+        assertThat(before.frames()).isEqualTo(MEMBERS);
+        // Encoded once; viewers get the topic copy only
+        assertThat(after.serializations()).isEqualTo(1);
+        assertThat(after.frames()).isEqualTo(MEMBERS / 2);
+    }
+
+    // The old path: topic broadcast from ChatWsController, then a notification and push per member
+    private void perMemberFanOut(MessageDTO message, Map<Long, String> recipients) {
+        template.convertAndSend(ConversationTopics.messages(message.getConversationId()), message);
+        for (Map.Entry<Long, String> recipient : recipients.entrySet()) {
+            CreateNotificationRequest request = new CreateNotificationRequest();
+            request.setRecipientId(recipient.getKey());
+            request.setActorId(message.getSenderId());
+            request.setType("MESSAGE");
+            request.setMessage("sent you a message");
+            request.setSourceId(message.getConversationId().toString());
+            notificationService.createAndSend(request);
+            template.convertAndSendToUser(recipient.getValue(), "/queue/messages", message);
+        }
+    }
+
+    private Result measure(Runnable fanOut) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            fanOut.run();
+        }
+        channel.reset();
+        converter.reset();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            fanOut.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(elapsed / 1000.0 / ROUNDS, converter.serializations / ROUNDS,
+                channel.frames / ROUNDS, channel.bytes / ROUNDS);
+    }
+
+    /* ================= SETUP ================= */
+
+    // Member 1 sends; even members view the conversation, odd ones are online elsewhere
+    private Map<Long, String> connectMembers() {
+        Map<Long, String> recipients = new LinkedHashMap<>();
+        for (long userId = 1; userId <= MEMBERS; userId++) {
+            String email = "member" + userId + "@vibeshare.test";
+            Principal principal = () -> email;
+            String sessionId = "session-" + userId;
+
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setSessionId(sessionId);
+            connect.setUser(principal);
+            userRegistry.onApplicationEvent(new SessionConnectedEvent(this,
+                    MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), principal));
+
+            if (userId % 2 == 0) {
+                StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+                subscribe.setSessionId(sessionId);
+                subscribe.setSubscriptionId("sub-0");
+                subscribe.setDestination(ConversationTopics.messages(CONVERSATION));
+                subscribe.setUser(principal);
+                userRegistry.onApplicationEvent(new SessionSubscribeEvent(this,
+                        MessageBuilder.createMessage(new byte[0], subscribe.getMessageHeaders()), principal));
+            }
+            if (userId > 1) {
+                recipients.put(userId, email);
+            }
+        }
+        return recipients;
+    }
+
+    private static MessageDTO message() {
+        return MessageDTO.builder()
+                .id(42L)
+                .conversationId(CONVERSATION)
+                .senderId(1L)
+                .senderName("member1")
+                .content("Has everyone seen the schedule for Saturday? We meet at the station at 9.")
+                .timestamp(LocalDateTime.now())
+                .sequence(42L)
+                .type(Message.MessageType.TEXT)
+                .isRead(false)
+                .build();
+    }
+
+    private record Result(double micros, long serializations, long frames, long bytes) {
+    }
+
+    /* ================= STUBS ================= */
+
+    // Stands in for the broker channel, only counts what would be delivered
+    private static class CountingChannel implements MessageChannel {
+        private long frames;
+        private long bytes;
+
+        @Override
+        public boolean send(org.springframework.messaging.Message<?> message, long timeout) {
+            frames++;
+            if (message.getPayload() instanceof byte[] payload) {
+                bytes += payload.length;
+            }
+            return true;
+        }
+
+        void reset() {
+            frames = 0;
+            bytes = 0;
+        }
+    }
+
+    private static class CountingConverter extends JacksonJsonMessageConverter {
+        private long serializations;
+
+        @Override
+        public org.springframework.messaging.Message<?> toMessage(Object payload, MessageHeaders headers,
+                                                                  Object conversionHint) {
+            serializations++;
+            return super.toMessage(payload, headers, conversionHint);
+        }
+
+        void reset() {
+            serializations = 0;
+        }
+    }
+
+    private static class NoopUserEventService implements UserEventService {
+        private long seq;
+
+        @Override
+        public long append(Long userId, String type, Object payload) {
+            return ++seq;
+        }
+
+        @Override
+        public UserEventsSinceResponse since(Long userId, long seq) {
+            return UserEventsSinceResponse.builder().build();
+        }
+    }
+}
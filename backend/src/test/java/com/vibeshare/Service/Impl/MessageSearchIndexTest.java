@@ -0,0 +1,80 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Repository.ConversationRepository;
+import com.vibeshare.Repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageSearchIndexTest {
+
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private MessageSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MessageSearchIndex(messageRepository, mock(ConversationRepository.class));
+        ReflectionTestUtils.setField(index, "brokerMode", "relay");
+        ReflectionTestUtils.setField(index, "catchUpOverlapMs", 30000L);
+    }
+
+    @Test
+    void catchUpIndexesMessagesWrittenByOtherNodes() {
+        when(messageRepository.findContentSince(any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{10L, 1L, "Lunch at noon?"},
+                        new Object[]{11L, 2L, "noon works"}));
+
+        index.catchUp();
+
+        assertThat(index.search(List.of(1L, 2L), "noon", null, 10)).containsExactly(11L, 10L);
+        assertThat(index.search(List.of(1L), "lunch noon", null, 10)).containsExactly(10L);
+    }
+
+    @Test
+    void rereadingTheOverlapDoesNotDuplicateHits() {
+        when(messageRepository.findContentSince(any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, 1L, "see you at noon"}));
+
+        index.catchUp();
+        index.catchUp();
+
+        assertThat(index.search(List.of(1L), "noon", null, 10)).containsExactly(10L);
+    }
+
+    @Test
+    void catchUpIsSkippedWithTheSimpleBroker() {
+        ReflectionTestUtils.setField(index, "brokerMode", "simple");
+
+        index.catchUp();
+
+        verify(messageRepository, never()).findContentSince(any(), anyLong(), any());
+    }
+
+    @Test
+    void removedIdsNoLongerMatch() {
+        when(messageRepository.findContentSince(any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{10L, 1L, "noon"},
+                        new Object[]{11L, 1L, "noon again"}));
+        index.catchUp();
+
+        index.remove(List.of(1L), List.of(10L));
+
+        assertThat(index.search(List.of(1L), "noon", null, 10)).containsExactly(11L);
+        assertThat(index.search(List.of(1L), "again", null, 10)).containsExactly(11L);
+    }
+}
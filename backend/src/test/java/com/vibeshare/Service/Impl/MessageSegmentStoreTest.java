@@ -0,0 +1,105 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.Message;
+import com.vibeshare.Model.MessageArchiveBlock;
+import com.vibeshare.Repository.MessageArchiveBlockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MessageSegmentStoreTest {
+
+    private final MessageArchiveBlockRepository blockRepository = mock(MessageArchiveBlockRepository.class);
+    private final List<MessageArchiveBlock> saved = new ArrayList<>();
+    private MessageSegmentStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Behaves like the table: blocks of the conversation starting below upper, newest first
+        when(blockRepository.saveAll(any())).thenAnswer(invocation -> {
+            ((Iterable<MessageArchiveBlock>) invocation.getArgument(0)).forEach(saved::add);
+            return invocation.getArgument(0);
+        });
+        when(blockRepository.findStartingBefore(anyLong(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Long conversationId = invocation.getArgument(0);
+            long upper = invocation.getArgument(1);
+            Pageable page = invocation.getArgument(2);
+            return saved.stream()
+                    .filter(block -> block.getConversationId().equals(conversationId) && block.getFirstMessageId() < upper)
+                    .sorted(Comparator.comparing(MessageArchiveBlock::getFirstMessageId).reversed())
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+
+        store = new MessageSegmentStore(blockRepository);
+        ReflectionTestUtils.setField(store, "blockSize", 3);
+    }
+
+    @Test
+    void splitsIntoBlocksAndRoundTripsEveryField() {
+        store.append(7L, messages(1, 7));
+
+        assertThat(saved).extracting(MessageArchiveBlock::getFirstMessageId).containsExactly(1L, 4L, 7L);
+        assertThat(saved).extracting(MessageArchiveBlock::getMessageCount).containsExactly(3, 3, 1);
+
+        MessageSegmentStore.ArchivedMessage newest = store.readBefore(7L, null, 1).get(0);
+        assertThat(newest.getId()).isEqualTo(7L);
+        assertThat(newest.getSenderId()).isEqualTo(42L);
+        assertThat(newest.getContent()).isEqualTo("message 7");
+        assertThat(newest.getAttachmentUrl()).isNull();
+        assertThat(newest.getSequence()).isEqualTo(7L);
+        assertThat(newest.getType()).isEqualTo(Message.MessageType.TEXT);
+        assertThat(newest.getTimestamp()).isEqualTo(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(7));
+    }
+
+    @Test
+    void readsNewestFirstAcrossBlocksBelowTheCursor() {
+        // More blocks than one repository page
+        store.append(7L, messages(1, 20));
+
+        assertThat(store.readBefore(7L, 15L, 5))
+                .extracting(MessageSegmentStore.ArchivedMessage::getId)
+                .containsExactly(14L, 13L, 12L, 11L, 10L);
+        assertThat(store.readBefore(7L, 3L, 10))
+                .extracting(MessageSegmentStore.ArchivedMessage::getId)
+                .containsExactly(2L, 1L);
+        assertThat(store.readBefore(7L, null, 100)).hasSize(20);
+    }
+
+    @Test
+    void keepsConversationsApart() {
+        store.append(7L, messages(1, 3));
+        store.append(8L, messages(4, 6));
+
+        assertThat(store.readBefore(8L, null, 10))
+                .extracting(MessageSegmentStore.ArchivedMessage::getId)
+                .containsExactly(6L, 5L, 4L);
+    }
+
+    private static List<MessageSegmentStore.ArchivedMessage> messages(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId)
+                .mapToObj(id -> MessageSegmentStore.ArchivedMessage.builder()
+                        .id(id)
+                        .senderId(42L)
+                        .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id))
+                        .sequence(id)
+                        .type(Message.MessageType.TEXT)
+                        .content("message " + id)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.NotificationResponse;
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.DTO.Response.UserSummary;
+import com.vibeshare.Repository.NotificationRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserDirectoryService;
+import com.vibeshare.Service.UserEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationCoalescerTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+    private static final long CAROL = 3L;
+    private static final long NOTIFICATION = 50L;
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UserDirectoryService userDirectoryService = mock(UserDirectoryService.class);
+    private final NotificationSseHub notificationSseHub = mock(NotificationSseHub.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(notificationRepository.updateAggregate(eq(NOTIFICATION), anyInt(), any(), any())).thenReturn(1);
+        when(userDirectoryService.getById(anyLong()))
+                .thenAnswer(invocation -> new UserSummary(invocation.getArgument(0), null, "user", null));
+
+        coalescer = new NotificationCoalescer(notificationRepository, mock(UserRepository.class), userDirectoryService,
+                mock(UserEventService.class), notificationSseHub, unreadCounter, transactionTemplate);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 60000L);
+        ReflectionTestUtils.setField(coalescer, "types", List.of("LIKE"));
+    }
+
+    @Test
+    void firstRequestOpensTheWindowAndLaterOnesAreAbsorbed() {
+        assertThat(coalescer.absorb(like(BOB))).isFalse();
+        coalescer.opened(like(BOB), leading());
+
+        assertThat(coalescer.absorb(like(CAROL))).isTrue();
+        assertThat(coalescer.absorb(request(CAROL, "MESSAGE"))).isFalse();
+    }
+
+    @Test
+    void shutdownFlushesOpenWindows() {
+        coalescer.absorb(like(BOB));
+        coalescer.opened(like(BOB), leading());
+        coalescer.absorb(like(CAROL));
+
+        coalescer.flushAll();
+
+        verify(notificationRepository).updateAggregate(eq(NOTIFICATION), eq(2), any(), any());
+        verify(notificationSseHub).publish(eq(ALICE), any(NotificationResponse.class), any());
+        // The window is gone, so the next like starts a new one
+        assertThat(coalescer.absorb(like(CAROL))).isFalse();
+    }
+
+    @Test
+    void windowWithoutNewActorsIsNotRewritten() {
+        coalescer.absorb(like(BOB));
+        coalescer.opened(like(BOB), leading());
+        coalescer.absorb(like(BOB));
+
+        coalescer.flushAll();
+
+        verify(notificationRepository, never()).updateAggregate(any(), anyInt(), any(), any());
+        verify(notificationSseHub, never()).publish(any(), any(), any());
+    }
+
+    @Test
+    void readRowIsCountedAgainOnlyWhenTheFlipHappens() {
+        when(notificationRepository.markUnread(NOTIFICATION)).thenReturn(1, 0);
+
+        // Read in between: the flip takes it back to unread
+        openWindowWithTwoActors();
+        coalescer.flushAll();
+        // Still unread from the last flush: nothing to count
+        openWindowWithTwoActors();
+        coalescer.flushAll();
+
+        verify(unreadCounter, times(1)).adjust(ALICE, 1);
+    }
+
+    @Test
+    void purgedRowIsNeitherFlippedNorPushed() {
+        when(notificationRepository.updateAggregate(eq(NOTIFICATION), anyInt(), any(), any())).thenReturn(0);
+
+        openWindowWithTwoActors();
+        coalescer.flushAll();
+
+        verify(notificationRepository, never()).markUnread(any());
+        verify(notificationSseHub, never()).publish(any(), any(), any());
+    }
+
+    private void openWindowWithTwoActors() {
+        coalescer.absorb(like(BOB));
+        coalescer.opened(like(BOB), leading());
+        coalescer.absorb(like(CAROL));
+    }
+
+    private static CreateNotificationRequest like(long actorId) {
+        return request(actorId, "LIKE");
+    }
+
+    private static CreateNotificationRequest request(long actorId, String type) {
+        CreateNotificationRequest request = new CreateNotificationRequest();
+        request.setRecipientId(ALICE);
+        request.setActorId(actorId);
+        request.setType(type);
+        request.setMessage("liked your post");
+        request.setSourceId("post-9");
+        return request;
+    }
+
+    private static NotificationResponse leading() {
+        return new NotificationResponse(NOTIFICATION, ALICE, BOB, "bob", "LIKE", "liked your post", "post-9",
+                false, Instant.now(), 1);
+    }
+}
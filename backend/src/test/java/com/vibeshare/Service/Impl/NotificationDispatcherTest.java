@@ -0,0 +1,97 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Request.CreateNotificationRequest;
+import com.vibeshare.Model.User;
+import com.vibeshare.Repository.NotificationRepository;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationDispatcherTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+    private static final long UNKNOWN = 99L;
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final NotificationCoalescer notificationCoalescer = mock(NotificationCoalescer.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(userRepository.findAllById(anyCollection())).thenAnswer(invocation -> ((Collection<Long>) invocation.getArgument(0))
+                .stream()
+                .filter(id -> id != UNKNOWN)
+                .map(NotificationDispatcherTest::user)
+                .toList());
+        when(notificationRepository.saveAll(anyIterable())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Workers never run, everything stays queued until stop()
+        dispatcher = new NotificationDispatcher(notificationRepository, userRepository, notificationCoalescer,
+                mock(NotificationUnreadCounter.class), mock(UserEventService.class), mock(NotificationSseHub.class),
+                transactionTemplate, task -> { }, 100);
+        ReflectionTestUtils.setField(dispatcher, "workers", 1);
+        ReflectionTestUtils.setField(dispatcher, "maxBatch", 2);
+    }
+
+    @Test
+    void stopDispatchesWhatIsStillQueued() {
+        for (int i = 0; i < 5; i++) {
+            dispatcher.submit(request(ALICE, BOB));
+        }
+
+        dispatcher.stop();
+
+        assertThat(dispatcher.pendingCount()).isZero();
+        // Batches of two, two and one
+        verify(notificationRepository, times(3)).saveAll(anyIterable());
+    }
+
+    @Test
+    void unknownActorAbandonsItsWindow() {
+        CreateNotificationRequest request = request(ALICE, UNKNOWN);
+        dispatcher.submit(request);
+
+        dispatcher.stop();
+
+        verify(notificationCoalescer).abandon(request);
+        verify(notificationRepository, never()).saveAll(anyIterable());
+    }
+
+    private static CreateNotificationRequest request(long recipientId, long actorId) {
+        CreateNotificationRequest request = new CreateNotificationRequest();
+        request.setRecipientId(recipientId);
+        request.setActorId(actorId);
+        request.setType("LIKE");
+        request.setMessage("liked your post");
+        request.setSourceId("post-9");
+        return request;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
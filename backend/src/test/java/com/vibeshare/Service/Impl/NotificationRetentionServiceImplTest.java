@@ -0,0 +1,76 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationRetentionServiceImplTest {
+
+    private static final long ALICE = 1L;
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
+    private final JobLocks jobLocks = mock(JobLocks.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private NotificationRetentionServiceImpl retention;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(jobLocks.runExclusively(any(), any(), any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(2)).run();
+            return true;
+        });
+        when(notificationRepository.findReadIdsCreatedBefore(any(), any(Pageable.class))).thenReturn(List.of());
+
+        retention = new NotificationRetentionServiceImpl(notificationRepository, unreadCounter, jobLocks,
+                transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(retention, "readMaxAgeDays", 30);
+        ReflectionTestUtils.setField(retention, "maxPerUser", 2);
+        ReflectionTestUtils.setField(retention, "batchSize", 10);
+        ReflectionTestUtils.setField(retention, "leaseMs", 60000L);
+    }
+
+    @Test
+    void capTrimTakesOffTheUnreadRowsItDeleted() {
+        when(notificationRepository.findRecipientIdsWithMoreThan(2)).thenReturn(List.of(ALICE));
+        when(notificationRepository.findIdsByRecipientIdNewestFirst(eq(ALICE), any(Pageable.class))).thenReturn(List.of(5L));
+        when(notificationRepository.findIdsByRecipientIdBefore(eq(ALICE), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L, 3L));
+        // One of the three was read between the select and the delete
+        when(notificationRepository.deleteUnreadByIdIn(List.of(1L, 2L, 3L))).thenReturn(2);
+        when(notificationRepository.deleteReadByIdIn(List.of(1L, 2L, 3L))).thenReturn(1);
+
+        assertThat(retention.purge()).isEqualTo(3);
+
+        verify(unreadCounter).adjust(ALICE, -2L);
+    }
+
+    @Test
+    void skipsTheRunWhileAnotherNodeHoldsTheLease() {
+        when(jobLocks.runExclusively(any(), any(), any())).thenReturn(false);
+
+        assertThat(retention.purge()).isZero();
+
+        verify(notificationRepository, never()).findReadIdsCreatedBefore(any(), any());
+        verify(unreadCounter, never()).adjust(anyLong(), anyLong());
+    }
+}
@@ -0,0 +1,65 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Model.NotificationCounter;
+import com.vibeshare.Repository.NotificationCounterRepository;
+import com.vibeshare.Repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationUnreadCounterTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+
+    private final NotificationCounterRepository counterRepository = mock(NotificationCounterRepository.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private NotificationUnreadCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(counterRepository.saveAndFlush(any(NotificationCounter.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        counter = new NotificationUnreadCounter(counterRepository, notificationRepository, transactionTemplate);
+    }
+
+    @Test
+    void ensureCountsOnlyUsersWithoutACounter() {
+        when(counterRepository.findExistingUserIds(anyCollection())).thenReturn(List.of(ALICE));
+        when(notificationRepository.countUnread(BOB)).thenReturn(4L);
+
+        counter.ensure(Set.of(ALICE, BOB));
+
+        ArgumentCaptor<NotificationCounter> created = ArgumentCaptor.forClass(NotificationCounter.class);
+        verify(counterRepository).saveAndFlush(created.capture());
+        assertThat(created.getValue().getUserId()).isEqualTo(BOB);
+        assertThat(created.getValue().getUnreadCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void markAllReadSubtractsTheRowsItFlipped() {
+        when(notificationRepository.markAllRead(ALICE)).thenReturn(3);
+        NotificationServiceImpl notifications = new NotificationServiceImpl(notificationRepository,
+                mock(NotificationSseHub.class), mock(NotificationDispatcher.class), counter);
+
+        notifications.markAllAsRead(ALICE);
+
+        // A row inserted after the update keeps its +1
+        verify(counterRepository).adjust(ALICE, -3L);
+    }
+}
@@ -0,0 +1,175 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.Config.WebSocketSessions;
+import com.vibeshare.DTO.Response.UserSummary;
+import com.vibeshare.Repository.UserRepository;
+import com.vibeshare.Service.UserDirectoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.CloseStatus;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceImplTest {
+
+    private static final long ALICE = 1L;
+    private static final long BOB = 2L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserDirectoryService userDirectoryService = mock(UserDirectoryService.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpUserRegistry userRegistry = mock(SimpUserRegistry.class);
+    private final WebSocketSessions webSocketSessions = mock(WebSocketSessions.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    // Tasks wait here until the test runs them, like a busy pool would
+    private final Queue<Runnable> pool = new ArrayDeque<>();
+    private PresenceServiceImpl presence;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(userDirectoryService.getById(ALICE)).thenReturn(new UserSummary(ALICE, "alice@vibeshare.test", "alice", null));
+        when(userRepository.findFollowerContacts(ALICE)).thenReturn(List.<Object[]>of(new Object[]{BOB, "bob@vibeshare.test"}));
+        when(userRepository.findConversationPeerContacts(ALICE)).thenReturn(List.of());
+        SimpUser bob = mock(SimpUser.class);
+        when(userRegistry.getUser("bob@vibeshare.test")).thenReturn(bob);
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        presence = presence(30000, 1000);
+    }
+
+    @Test
+    void queuedPushesReportTheStateAtSendTime() {
+        presence.sessionConnected(ALICE, "s1");
+        presence.sessionDisconnected(ALICE, "s1");
+        presence.sessionConnected(ALICE, "s2");
+
+        runPool();
+
+        // Three transitions, but she was online whenever a push ran
+        assertThat(pushedStates()).containsExactly(true);
+    }
+
+    @Test
+    void reconnectAfterOfflinePushEndsOnline() {
+        presence.sessionConnected(ALICE, "s1");
+        runPool();
+        presence.sessionDisconnected(ALICE, "s1");
+        runPool();
+        presence.sessionConnected(ALICE, "s2");
+        runPool();
+
+        assertThat(pushedStates()).containsExactly(true, false, true);
+    }
+
+    @Test
+    void staysOnlineWhileAnotherNodeHoldsASession() {
+        presence.sessionConnected(ALICE, "s1");
+        runPool();
+
+        SimpUser alice = mock(SimpUser.class);
+        SimpSession local = mock(SimpSession.class);
+        when(local.getId()).thenReturn("s1");
+        SimpSession remote = mock(SimpSession.class);
+        when(remote.getId()).thenReturn("remote-1");
+        when(alice.getSessions()).thenReturn(Set.of(local, remote));
+        when(userRegistry.getUser("alice@vibeshare.test")).thenReturn(alice);
+
+        presence.sessionDisconnected(ALICE, "s1");
+        runPool();
+        presence.flush();
+
+        assertThat(presence.isOnline(ALICE)).isTrue();
+        assertThat(pushedStates()).containsExactly(true);
+        verify(userRepository, never()).markOffline(anyCollection(), any());
+    }
+
+    @Test
+    void flushWritesTheCurrentState() {
+        presence.sessionConnected(ALICE, "s1");
+        presence.sessionDisconnected(ALICE, "s1");
+
+        presence.flush();
+
+        verify(userRepository).markOffline(eq(List.of(ALICE)), any());
+        verify(userRepository, never()).markOnline(anyCollection());
+    }
+
+    @Test
+    void expiredSessionIsClosedAndGoesOffline() throws Exception {
+        presence = presence(20, 1);
+        presence.sessionConnected(ALICE, "s1");
+        runPool();
+
+        Thread.sleep(50);
+        presence.expireStaleSessions();
+        runPool();
+
+        verify(webSocketSessions).close("s1", CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(presence.isOnline(ALICE)).isFalse();
+        assertThat(pushedStates()).containsExactly(true, false);
+    }
+
+    @Test
+    void activeSessionIsNotExpired() throws Exception {
+        presence = presence(200, 1);
+        presence.sessionConnected(ALICE, "s1");
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(60);
+            presence.sessionActive("s1");
+            presence.expireStaleSessions();
+        }
+
+        verify(webSocketSessions, never()).close(any(), any());
+        assertThat(presence.isOnline(ALICE)).isTrue();
+    }
+
+    private PresenceServiceImpl presence(long sessionTimeoutMs, long wheelTickMs) {
+        return new PresenceServiceImpl(userRepository, userDirectoryService, messagingTemplate, userRegistry,
+                webSocketSessions, transactionTemplate, pool::add, 100, 60000, sessionTimeoutMs, wheelTickMs, 100);
+    }
+
+    private void runPool() {
+        Runnable task;
+        while ((task = pool.poll()) != null) {
+            task.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Boolean> pushedStates() {
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, atLeast(0))
+                .convertAndSendToUser(eq("bob@vibeshare.test"), eq("/queue/user.status"), payloads.capture());
+        return payloads.getAllValues().stream()
+                .map(payload -> (Boolean) ((Map<String, Object>) payload).get("isOnline"))
+                .toList();
+    }
+}
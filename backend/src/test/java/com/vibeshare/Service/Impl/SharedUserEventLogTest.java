@@ -0,0 +1,122 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Model.UserEvent;
+import com.vibeshare.Model.UserEventCounter;
+import com.vibeshare.Repository.UserEventCounterRepository;
+import com.vibeshare.Repository.UserEventRepository;
+import com.vibeshare.Service.UserEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SharedUserEventLogTest {
+
+    private static final long USER = 1L;
+
+    // Stand in for the user_event_counters and user_events tables shared by all nodes
+    private final Map<Long, Long> counters = new HashMap<>();
+    private final TreeMap<Long, UserEvent> events = new TreeMap<>();
+
+    private final UserEventCounterRepository counterRepository = mock(UserEventCounterRepository.class);
+    private final UserEventRepository eventRepository = mock(UserEventRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        when(counterRepository.advance(any())).thenAnswer(invocation ->
+                counters.computeIfPresent(invocation.getArgument(0), (user, seq) -> seq + 1) == null ? 0 : 1);
+        when(counterRepository.saveAndFlush(any(UserEventCounter.class))).thenAnswer(invocation -> {
+            UserEventCounter row = invocation.getArgument(0);
+            counters.put(row.getUserId(), row.getLastSeq());
+            return row;
+        });
+        when(counterRepository.findLastSeq(any())).thenAnswer(invocation ->
+                Optional.ofNullable(counters.get(invocation.<Long>getArgument(0))));
+
+        when(eventRepository.save(any(UserEvent.class))).thenAnswer(invocation -> {
+            UserEvent row = invocation.getArgument(0);
+            events.put(row.getSeq(), row);
+            return row;
+        });
+        when(eventRepository.deleteUpTo(any(), anyLong())).thenAnswer(invocation -> {
+            Map<Long, UserEvent> pruned = events.headMap(invocation.<Long>getArgument(1), true);
+            int count = pruned.size();
+            pruned.clear();
+            return count;
+        });
+        when(eventRepository.findAfter(any(), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable page = invocation.getArgument(2);
+            return events.tailMap(invocation.<Long>getArgument(1), false).values().stream()
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+    }
+
+    @Test
+    void eitherNodeReplaysEventsAppendedOnTheOther() {
+        SharedUserEventLog nodeA = node(16);
+        SharedUserEventLog nodeB = node(16);
+
+        long seen = nodeA.append(USER, UserEventService.TYPE_MESSAGE, Map.of("id", 1));
+        nodeB.append(USER, UserEventService.TYPE_MESSAGE, Map.of("id", 2));
+        nodeA.append(USER, UserEventService.TYPE_READ, Map.of("id", 3));
+
+        UserEventsSinceResponse fromA = nodeA.since(USER, seen);
+        UserEventsSinceResponse fromB = nodeB.since(USER, seen);
+
+        assertThat(fromA.isResync()).isFalse();
+        assertThat(fromA.getEvents()).extracting("seq").containsExactly(seen + 1, seen + 2);
+        assertThat(fromB.getEvents()).extracting("seq").containsExactly(seen + 1, seen + 2);
+        assertThat(fromB.getLatestSeq()).isEqualTo(seen + 2);
+    }
+
+    @Test
+    void prunedEventsForceAResync() {
+        SharedUserEventLog log = node(2);
+        long first = log.append(USER, UserEventService.TYPE_MESSAGE, "m1");
+        log.append(USER, UserEventService.TYPE_MESSAGE, "m2");
+        log.append(USER, UserEventService.TYPE_MESSAGE, "m3");
+        log.append(USER, UserEventService.TYPE_MESSAGE, "m4");
+
+        assertThat(log.since(USER, first).isResync()).isTrue();
+        assertThat(log.since(USER, first + 1).getEvents()).hasSize(2);
+    }
+
+    @Test
+    void seqNotIssuedByTheLogForcesAResync() {
+        SharedUserEventLog log = node(16);
+        log.append(USER, UserEventService.TYPE_MESSAGE, "m1");
+
+        // e.g. a block-based seq kept from simple mode
+        UserEventsSinceResponse since = log.since(USER, System.currentTimeMillis() * 1000);
+
+        assertThat(since.isResync()).isTrue();
+        assertThat(since.getLatestSeq()).isEqualTo(1);
+    }
+
+    @Test
+    void newUserIsCurrentWithoutEvents() {
+        UserEventsSinceResponse since = node(16).since(USER, 0);
+
+        assertThat(since.isResync()).isFalse();
+        assertThat(since.getEvents()).isEmpty();
+    }
+
+    private SharedUserEventLog node(int capacity) {
+        return new SharedUserEventLog(counterRepository, eventRepository, JsonMapper.builder().build(),
+                mock(PlatformTransactionManager.class), capacity);
+    }
+}
@@ -0,0 +1,100 @@
+package com.vibeshare.Service.Impl;
+
+import com.vibeshare.DTO.Response.UserEventsSinceResponse;
+import com.vibeshare.Model.SequenceCounter;
+import com.vibeshare.Repository.SequenceCounterRepository;
+import com.vibeshare.Service.UserEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserEventServiceImplTest {
+
+    private static final long USER = 1L;
+
+    private final SequenceCounterRepository counterRepository = mock(SequenceCounterRepository.class);
+    // Stands in for the counter row, null until it is created
+    private final AtomicReference<Long> counter = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        when(counterRepository.advance(eq("user_events"), anyLong())).thenAnswer(invocation -> {
+            if (counter.get() == null) {
+                return 0;
+            }
+            long count = invocation.getArgument(1);
+            counter.accumulateAndGet(count, Long::sum);
+            return 1;
+        });
+        when(counterRepository.saveAndFlush(any(SequenceCounter.class))).thenAnswer(invocation -> {
+            SequenceCounter row = invocation.getArgument(0);
+            counter.set(row.getNextValue());
+            return row;
+        });
+        when(counterRepository.findNextValue("user_events")).thenAnswer(invocation -> Optional.ofNullable(counter.get()));
+    }
+
+    @Test
+    void seqsKeepGrowingAcrossBlocks() {
+        UserEventServiceImpl events = node(2);
+
+        long previous = 0;
+        for (int i = 0; i < 7; i++) {
+            long seq = events.append(USER, UserEventService.TYPE_MESSAGE, "m" + i);
+            assertThat(seq).isGreaterThan(previous);
+            previous = seq;
+        }
+        assertThat(events.since(USER, 0).getEvents()).hasSize(7);
+    }
+
+    @Test
+    void firstReservationStartsAboveClockBasedSeqs() {
+        long clockBased = System.currentTimeMillis() * 1000;
+
+        long seq = node(10).append(USER, UserEventService.TYPE_MESSAGE, "m");
+
+        assertThat(seq).isGreaterThanOrEqualTo(clockBased);
+    }
+
+    @Test
+    void clientFromBeforeARestartIsToldToResync() {
+        UserEventServiceImpl before = node(10);
+        long seen = before.append(USER, UserEventService.TYPE_MESSAGE, "m");
+
+        // Restarted node, the log is gone and its block starts past everything handed out before
+        UserEventServiceImpl after = node(10);
+        UserEventsSinceResponse since = after.since(USER, seen);
+
+        assertThat(since.isResync()).isTrue();
+        assertThat(after.append(USER, UserEventService.TYPE_MESSAGE, "n")).isGreaterThan(seen);
+    }
+
+    @Test
+    void currentClientCatchesUpWithoutResync() {
+        UserEventServiceImpl events = node(10);
+        long seen = events.append(USER, UserEventService.TYPE_MESSAGE, "m1");
+        events.append(USER, UserEventService.TYPE_READ, "r1");
+
+        UserEventsSinceResponse since = events.since(USER, seen);
+
+        assertThat(since.isResync()).isFalse();
+        assertThat(since.getEvents()).extracting("type").containsExactly(UserEventService.TYPE_READ);
+    }
+
+    private UserEventServiceImpl node(int blockSize) {
+        UserEventServiceImpl events = new UserEventServiceImpl(
+                counterRepository, mock(PlatformTransactionManager.class), null, "simple", 100, 16, blockSize);
+        events.reserveInitialBlock();
+        return events;
+    }
+}
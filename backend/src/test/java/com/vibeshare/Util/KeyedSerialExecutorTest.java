@@ -0,0 +1,102 @@
+package com.vibeshare.Util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedSerialExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void runsTasksOfOneKeyInSubmissionOrder() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool, 100_000);
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(4 * 1000);
+
+        for (int i = 0; i < 1000; i++) {
+            for (int key = 0; key < 4; key++) {
+                int k = key;
+                int n = i;
+                assertThat(executor.execute(k, () -> {
+                    seen.computeIfAbsent(k, x -> Collections.synchronizedList(new ArrayList<>())).add(n);
+                    done.countDown();
+                })).isTrue();
+            }
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int key = 0; key < 4; key++) {
+            assertThat(seen.get(key)).isSorted().hasSize(1000);
+        }
+        assertThat(executor.pendingCount()).isZero();
+    }
+
+    @Test
+    void neverRunsTwoTasksOfOneKeyAtOnce() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool, 100_000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(500);
+
+        for (int i = 0; i < 500; i++) {
+            executor.execute("conversation", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.yield();
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refusesTasksAbovePendingLimitWithoutBlocking() throws Exception {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(pool, 2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThat(executor.execute(1L, () -> await(release))).isTrue();
+        assertThat(executor.execute(1L, () -> { })).isTrue();
+        assertThat(executor.execute(2L, () -> { })).isFalse();
+
+        release.countDown();
+    }
+
+    @Test
+    void refusesWhenThePoolRejects() {
+        KeyedSerialExecutor executor = new KeyedSerialExecutor(task -> {
+            throw new RejectedExecutionException("full");
+        }, 10);
+
+        assertThat(executor.execute(1L, () -> { })).isFalse();
+        assertThat(executor.pendingCount()).isZero();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,11 +3,64 @@ import type {
   ConversationResponse,
   MessageDTO,
   ChatRequest,
+  InboxEntryResponse,
 } from "@/types/ChatType";
+import type { UserResponseType } from "@/types/UserResponseType";
+
+const INBOX_PAGE_SIZE = 50;
+
+// Inbox rows carry just enough for the list; the peer's full profile is loaded when the chat opens
+const toConversation = (entry: InboxEntryResponse): ConversationResponse => ({
+  id: entry.conversationId,
+  isGroup: entry.isGroup,
+  chatName: entry.chatName,
+  chatImage: entry.chatImage,
+  users:
+    entry.peerId !== undefined && entry.peerId !== null
+      ? [
+          {
+            id: entry.peerId,
+            username: entry.peerUsername ?? "",
+            profilePic: entry.peerProfilePic ?? null,
+          } as UserResponseType,
+        ]
+      : [],
+  lastMessage:
+    entry.lastMessageId !== undefined && entry.lastMessageId !== null
+      ? {
+          id: entry.lastMessageId,
+          conversationId: entry.conversationId,
+          senderId: entry.lastSenderId!,
+          senderName: "",
+          // Attachment-only messages are previewed as "[IMAGE]" etc.
+          content:
+            entry.lastMessageType && entry.lastMessageType !== "TEXT"
+              ? (entry.lastMessagePreview ?? "").replace(/^\[[A-Z]+\]$/, "")
+              : entry.lastMessagePreview ?? "",
+          timestamp: entry.lastMessageTimestamp!,
+          type: entry.lastMessageType ?? "TEXT",
+          isRead: entry.unreadCount === 0,
+        }
+      : undefined,
+  createdAt: entry.lastMessageTimestamp ?? "",
+  unreadCount: entry.unreadCount,
+});
 
 export const chatService = {
+  getInbox: async (page = 0, size = INBOX_PAGE_SIZE): Promise<InboxEntryResponse[]> => {
+    return apiFetch<InboxEntryResponse[]>(
+      `/api/chat/inbox?page=${page}&size=${size}`
+    );
+  },
+
+  // Conversation list from the inbox projection, all pages
   getConversations: async (): Promise<ConversationResponse[]> => {
-    return apiFetch<ConversationResponse[]>("/api/chat/conversations");
+    const conversations: ConversationResponse[] = [];
+    for (let page = 0; ; page++) {
+      const entries = await chatService.getInbox(page, INBOX_PAGE_SIZE);
+      conversations.push(...entries.map(toConversation));
+      if (entries.length < INBOX_PAGE_SIZE) return conversations;
+    }
   },
 
   createOrGetConversation: async (
@@ -19,8 +72,17 @@ export const chatService = {
     });
   },
 
-  getMessages: async (conversationId: number): Promise<MessageDTO[]> => {
-    return apiFetch<MessageDTO[]>(`/api/chat/messages/${conversationId}`);
+  // Newest page by default; pass the oldest loaded message id to page further back
+  getMessages: async (
+    conversationId: number,
+    before?: number,
+    limit = 50
+  ): Promise<MessageDTO[]> => {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (before !== undefined) params.set("before", String(before));
+    return apiFetch<MessageDTO[]>(
+      `/api/chat/messages/${conversationId}?${params.toString()}`
+    );
   },
 
   uploadAttachment: async (file: File): Promise<{ url: string }> => {
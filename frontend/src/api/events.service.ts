@@ -0,0 +1,28 @@
+import { apiFetch } from "./client";
+import type { UserEventsSince } from "@/types/ChatType";
+
+// Each channel keeps its own cursor, moved only by events it received in order:
+// chat by the STOMP seq header and the catch-up response, notifications by SSE ids.
+// The SSE stream stays up while the socket is down, so a shared cursor would move
+// past chat events that were never delivered and catch-up would skip them.
+export type EventChannel = "chat" | "notifications";
+
+const lastSeq: Record<EventChannel, number | null> = {
+  chat: null,
+  notifications: null,
+};
+
+export const eventsService = {
+  // Everything pushed to the current user after seq; resync means reload instead
+  getSince: async (seq: number): Promise<UserEventsSince> => {
+    return apiFetch<UserEventsSince>(`/api/events/since?seq=${seq}`);
+  },
+
+  getLastSeq: (channel: EventChannel): number | null => lastSeq[channel],
+
+  advanceSeq: (channel: EventChannel, seq: number) => {
+    if (Number.isFinite(seq) && seq > 0) {
+      lastSeq[channel] = Math.max(lastSeq[channel] ?? 0, seq);
+    }
+  },
+};
@@ -1,4 +1,5 @@
 import { apiFetch } from "./client";
+import { eventsService } from "./events.service";
 import { useAuthStore } from "@/store";
 import type { NotificationResponse } from "@/types/NotificationType";
 
@@ -11,22 +12,24 @@ export interface CreateNotificationRequest {
 }
 
 export const notificationService = {
-  // Create (manual) — useful for testing
-  createAndSend: async (
-    req: CreateNotificationRequest
-  ): Promise<NotificationResponse> => {
-    return apiFetch<NotificationResponse>("/api/notifications", {
+  // Create (manual) — queued server-side, the notification itself arrives over SSE
+  createAndSend: async (req: CreateNotificationRequest): Promise<void> => {
+    await apiFetch<void>("/api/notifications", {
       method: "POST",
       body: JSON.stringify(req),
     });
   },
 
-  // Get all notifications for a user
+  // Newest page by default; pass the oldest loaded id to page further back
   getNotificationsForUser: async (
-    userId: number
+    userId: number,
+    before?: number,
+    limit = 30
   ): Promise<NotificationResponse[]> => {
+    const params = new URLSearchParams({ limit: String(limit) });
+    if (before !== undefined) params.set("before", String(before));
     return apiFetch<NotificationResponse[]>(
-      `/api/notifications/user/${userId}`
+      `/api/notifications/user/${userId}?${params.toString()}`
     );
   },
 
@@ -39,6 +42,14 @@ export const notificationService = {
     );
   },
 
+  // Badge count, maintained server-side
+  getUnreadCount: async (userId: number): Promise<number> => {
+    const res = await apiFetch<{ count: number }>(
+      `/api/notifications/user/${userId}/unread-count`
+    );
+    return res.count;
+  },
+
   // Mark one read
   markAsRead: async (id: number): Promise<void> => {
     return apiFetch<void>(`/api/notifications/${id}/read`, {
@@ -53,21 +64,29 @@ export const notificationService = {
     });
   },
 
-  // Real-time subscription (SSE)
+  // Real-time subscription (SSE). On its own reconnects EventSource sends Last-Event-ID
+  // and the server replays what was missed; onResync fires when it cannot.
   subscribe: (
     userId: number,
-    onMessage: (notification: NotificationResponse) => void
+    onMessage: (notification: NotificationResponse) => void,
+    onResync?: () => void
   ) => {
     const { accessToken } = useAuthStore.getState();
+    // A fresh EventSource cannot send Last-Event-ID, so the cursor goes in the query
+    const lastSeq = eventsService.getLastSeq("notifications");
     const url = `${
       import.meta.env.VITE_API_URL || ""
-    }/api/notifications/stream/${userId}?token=${accessToken || ""}`;
+    }/api/notifications/stream/${userId}?token=${accessToken || ""}${
+      lastSeq !== null ? `&lastEventId=${lastSeq}` : ""
+    }`;
 
     const eventSource = new EventSource(url);
 
     eventSource.onopen = () => {};
 
     eventSource.onmessage = (event) => {
+      // The event id is the seq the server logged the notification under
+      eventsService.advanceSeq("notifications", Number(event.lastEventId));
       try {
         const data = JSON.parse(event.data);
         onMessage(data);
@@ -76,6 +95,11 @@ export const notificationService = {
       }
     };
 
+    eventSource.addEventListener("resync", (event) => {
+      eventsService.advanceSeq("notifications", Number((event as MessageEvent).data));
+      onResync?.();
+    });
+
     eventSource.onerror = (error) => {
       console.error("[SSE] Error:", error);
       // EventSource automatically tries to reconnect, but you might want to close on fatal errors
@@ -60,7 +60,11 @@ export function AppLayout() {
     const unsubscribe = notificationService.subscribe(
       user.id,
       (notification) => {
-        if (notification.type !== "MESSAGE") {
+        // Coalesced updates re-push a row that was already counted
+        if (
+          notification.type !== "MESSAGE" &&
+          (notification.aggregateCount ?? 1) <= 1
+        ) {
           incrementUnread();
         }
 
@@ -104,6 +108,10 @@ export function AppLayout() {
               <div className="flex items-center justify-between pl-1">
                 <span className="text-sm font-bold text-foreground tracking-tight">
                   {notification.actorUsername}
+                  {(notification.aggregateCount ?? 1) > 1 &&
+                    ` and ${notification.aggregateCount! - 1} ${
+                      notification.aggregateCount === 2 ? "other" : "others"
+                    }`}
                 </span>
                 <span className="text-[10px] uppercase tracking-wider text-muted-foreground font-medium opacity-70">
                   Now
@@ -10,6 +10,8 @@ import type {
   UserStatusUpdate,
   ReadReceipt,
 } from "@/types/ChatType";
+import { chatService } from "@/api/chat.service";
+import { eventsService } from "@/api/events.service";
 import { toast } from "sonner";
 
 const WS_URL = "/ws";
@@ -18,6 +20,7 @@ export const useChatSocket = () => {
   const { accessToken, user } = useAuthStore();
   const {
     addMessage,
+    setConversations,
     updateTypingStatus,
     updateUserStatus,
     markMessageAsRead,
@@ -33,18 +36,51 @@ export const useChatSocket = () => {
 
   const stompClientRef = useRef<Client | null>(null);
 
+  const catchUp = useCallback(async () => {
+    try {
+      // Highest seq seen on this socket, so only what was missed is fetched
+      const lastSeq = eventsService.getLastSeq("chat");
+      const since = await eventsService.getSince(lastSeq ?? 0);
+      if (lastSeq !== null) {
+        if (since.resync) {
+          setConversations(await chatService.getConversations());
+        } else {
+          since.events.forEach((event) => {
+            if (event.type === "MESSAGE") {
+              const msg = event.payload as MessageDTO;
+              addMessage(msg.conversationId, msg);
+              updateLastMessage(msg.conversationId, msg);
+            } else if (event.type === "READ") {
+              const receipt = event.payload as ReadReceipt;
+              markMessageAsRead(
+                receipt.conversationId,
+                receipt.messageId,
+                receipt.readerId
+              );
+            }
+          });
+        }
+      }
+      eventsService.advanceSeq("chat", since.latestSeq);
+    } catch {
+      // Catch-up is best effort; the next reconnect retries from the same seq
+    }
+  }, [addMessage, setConversations, updateLastMessage, markMessageAsRead]);
+
   useEffect(() => {
     if (!accessToken) return;
 
-    const socket = new SockJS(WS_URL);
     const client = new Client({
-      webSocketFactory: () => socket,
+      // A fresh socket per attempt, so reconnecting after the server closed the session works
+      webSocketFactory: () => new SockJS(WS_URL),
       connectHeaders: {
         Authorization: `Bearer ${accessToken}`,
       },
       onConnect: () => {
-        // Subscribe to user status updates (presence)
-        client.subscribe("/topic/user.status", (message: IMessage) => {
+        catchUp();
+
+        // Presence changes of followers and chat partners
+        client.subscribe("/user/queue/user.status", (message: IMessage) => {
           const status = JSON.parse(message.body) as UserStatusUpdate;
           updateUserStatus(status);
         });
@@ -52,6 +88,7 @@ export const useChatSocket = () => {
         // Global subscription for new messages (Toasts & Inbox updates)
         client.subscribe("/user/queue/messages", (message: IMessage) => {
           const newMsg = JSON.parse(message.body) as MessageDTO;
+          eventsService.advanceSeq("chat", Number(message.headers["seq"]));
 
           // Update inbox preview
           updateLastMessage(newMsg.conversationId, newMsg);
@@ -88,7 +125,7 @@ export const useChatSocket = () => {
 
     // Subscribe to new messages in this conversation
     const msgSub = client.subscribe(
-      `/topic/conversation/${activeConversationId}`,
+      `/topic/conversation.${activeConversationId}`,
       (message: IMessage) => {
         const newMsg = JSON.parse(message.body) as MessageDTO;
         addMessage(activeConversationId, newMsg);
@@ -103,7 +140,7 @@ export const useChatSocket = () => {
 
     // Subscribe to typing indicators
     const typingSub = client.subscribe(
-      `/topic/conversation/${activeConversationId}/typing`,
+      `/topic/conversation.${activeConversationId}.typing`,
       (message: IMessage) => {
         const status = JSON.parse(message.body) as TypingStatus;
         if (user && status.username !== user.username) {
@@ -114,10 +151,14 @@ export const useChatSocket = () => {
 
     // Subscribe to read receipts
     const readSub = client.subscribe(
-      `/topic/conversation/${activeConversationId}/read`,
+      `/topic/conversation.${activeConversationId}.read`,
       (message: IMessage) => {
         const receipt = JSON.parse(message.body) as ReadReceipt;
-        markMessageAsRead(receipt.conversationId, receipt.messageId);
+        markMessageAsRead(
+          receipt.conversationId,
+          receipt.messageId,
+          receipt.readerId
+        );
       }
     );
 
@@ -32,6 +32,8 @@ import {
 import type { UserResponseType } from "@/types/UserResponseType";
 import type { ConversationResponse } from "@/types/ChatType";
 
+const PAGE_SIZE = 50;
+
 export default function Chat() {
   const { user } = useAuthStore();
   const {
@@ -41,6 +43,7 @@ export default function Chat() {
     setActiveConversationId,
     messages,
     setMessages,
+    prependMessages,
     typingStatus,
     onlineUsers,
   } = useChatStore();
@@ -53,6 +56,8 @@ export default function Chat() {
   const [selectedFile, setSelectedFile] = useState<File | null>(null);
   const [filePreview, setFilePreview] = useState<string | null>(null);
   const [isUploading, setIsUploading] = useState(false);
+  const [hasEarlier, setHasEarlier] = useState<Record<number, boolean>>({});
+  const [loadingEarlier, setLoadingEarlier] = useState(false);
   const fileInputRef = useRef<HTMLInputElement>(null);
 
   const messagesEndRef = useRef<HTMLDivElement>(null);
@@ -80,19 +85,80 @@ export default function Chat() {
       });
   }, [setConversations]);
 
+  // Inbox rows only carry the peer's name and picture, load the full profile for the header
+  const activePartnerId = conversations
+    .find((c) => c.id === activeConversationId)
+    ?.users.find((u) => u.id !== user?.id && !u.name)?.id;
+  useEffect(() => {
+    if (!activeConversationId || activePartnerId === undefined) return;
+    userService
+      .getById(activePartnerId)
+      .then((partner) =>
+        setConversations(
+          useChatStore.getState().conversations.map((c) =>
+            c.id === activeConversationId
+              ? {
+                  ...c,
+                  users: c.users.map((u) =>
+                    u.id === partner.id ? partner : u
+                  ),
+                }
+              : c
+          )
+        )
+      )
+      .catch((err) => console.error("Failed to load chat partner", err));
+  }, [activeConversationId, activePartnerId, setConversations]);
+
   // Fetch messages when active conversation changes
   useEffect(() => {
     if (activeConversationId) {
       chatService
-        .getMessages(activeConversationId)
-        .then((msgs) => setMessages(activeConversationId, msgs))
+        .getMessages(activeConversationId, undefined, PAGE_SIZE)
+        .then((msgs) => {
+          setMessages(activeConversationId, msgs);
+          setHasEarlier((prev) => ({
+            ...prev,
+            [activeConversationId]: msgs.length === PAGE_SIZE,
+          }));
+        })
         .catch((err) => console.error("Failed to fetch messages", err));
     }
   }, [activeConversationId, setMessages]);
 
+  // Only follow the newest message, loading earlier pages keeps the scroll position
+  const activeMessages = activeConversationId
+    ? messages[activeConversationId]
+    : undefined;
+  const newestMessageId = activeMessages?.[activeMessages.length - 1]?.id;
   useEffect(() => {
     messagesEndRef.current?.scrollIntoView({ behavior: "smooth" });
-  }, [messages, activeConversationId]);
+  }, [newestMessageId, activeConversationId]);
+
+  // Keyset scroll-back; pages past the hot table come from the archive
+  const handleLoadEarlier = async () => {
+    if (!activeConversationId || loadingEarlier || !activeMessages?.length)
+      return;
+    const conversationId = activeConversationId;
+    setLoadingEarlier(true);
+    try {
+      const older = await chatService.getMessages(
+        conversationId,
+        activeMessages[0].id,
+        PAGE_SIZE
+      );
+      prependMessages(conversationId, older);
+      setHasEarlier((prev) => ({
+        ...prev,
+        [conversationId]: older.length === PAGE_SIZE,
+      }));
+    } catch (err) {
+      console.error("Failed to load earlier messages", err);
+      toast.error("Failed to load earlier messages");
+    } finally {
+      setLoadingEarlier(false);
+    }
+  };
 
   // Search users for new chat
   useEffect(() => {
@@ -431,6 +497,19 @@ export default function Chat() {
                   </Button>
                 </div>
 
+                {activeConversationId && hasEarlier[activeConversationId] && (
+                  <div className="flex justify-center">
+                    <Button
+                      variant="ghost"
+                      size="sm"
+                      disabled={loadingEarlier}
+                      onClick={handleLoadEarlier}
+                    >
+                      {loadingEarlier ? "Loading..." : "Load earlier messages"}
+                    </Button>
+                  </div>
+                )}
+
                 {/* Actual Messages */}
                 {activeConversationId &&
                   (messages[activeConversationId] || []).map((msg, idx) => {
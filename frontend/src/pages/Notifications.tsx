@@ -1,7 +1,7 @@
 import { useEffect, useState, useMemo } from "react";
 import { Link } from "react-router-dom";
 import { encodeId } from "@/lib/idEncoder";
-import { useAuthStore } from "@/store";
+import { useAuthStore, useNotificationStore } from "@/store";
 import { notificationService } from "@/api/notification.service";
 import { userService } from "@/api/user.service";
 import type { NotificationResponse } from "@/types/NotificationType";
@@ -10,12 +10,17 @@ import { Button } from "@/components/ui/button";
 import { Heart, MessageCircle, UserPlus, Bell } from "lucide-react";
 import { cn } from "@/lib/utils";
 
+const PAGE_SIZE = 30;
+
 export default function Notifications() {
   const user = useAuthStore((s) => s.user);
   const [notifications, setNotifications] = useState<NotificationResponse[]>(
     []
   );
   const [loading, setLoading] = useState(true);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const setUnreadCount = useNotificationStore((s) => s.setUnreadCount);
   const [followingIds, setFollowingIds] = useState<Set<number>>(new Set());
   const [followLoading, setFollowLoading] = useState<Set<number>>(new Set());
 
@@ -23,30 +28,44 @@ export default function Notifications() {
   useEffect(() => {
     if (!user) return;
 
+    const load = () =>
+      notificationService
+        .getNotificationsForUser(user.id, undefined, PAGE_SIZE)
+        .then((data) => {
+          setHasMore(data.length === PAGE_SIZE);
+          // Sort by date desc
+          setNotifications(
+            data
+              .filter((n) => n.type !== "MESSAGE")
+              .sort(
+                (a, b) =>
+                  new Date(b.createdAt).getTime() -
+                  new Date(a.createdAt).getTime()
+              )
+          );
+        })
+        .catch(console.error)
+        .finally(() => setLoading(false));
+
     setLoading(true);
-    notificationService
-      .getNotificationsForUser(user.id)
-      .then((data) => {
-        // Sort by date desc
-        setNotifications(
-          data
-            .filter((n) => n.type !== "MESSAGE")
-            .sort(
-              (a, b) =>
-                new Date(b.createdAt).getTime() -
-                new Date(a.createdAt).getTime()
-            )
-        );
-      })
-      .catch(console.error)
-      .finally(() => setLoading(false));
+    load();
 
     // Real-time subscription to update the list
-    const unsubscribe = notificationService.subscribe(user.id, (newNotif) => {
-      if (newNotif.type !== "MESSAGE") {
-        setNotifications((prev) => [newNotif, ...prev]);
-      }
-    });
+    const unsubscribe = notificationService.subscribe(
+      user.id,
+      (newNotif) => {
+        if (newNotif.type !== "MESSAGE") {
+          // A coalesced update carries the id of the row it aggregates
+          setNotifications((prev) =>
+            prev.some((n) => n.id === newNotif.id)
+              ? prev.map((n) => (n.id === newNotif.id ? newNotif : n))
+              : [newNotif, ...prev]
+          );
+        }
+      },
+      // Missed more than the server could replay
+      load
+    );
 
     return () => {
       unsubscribe();
@@ -64,11 +83,34 @@ export default function Notifications() {
       .catch(console.error);
   }, [user]);
 
+  const handleLoadMore = async () => {
+    if (!user || loadingMore || notifications.length === 0) return;
+    setLoadingMore(true);
+    try {
+      const oldestId = Math.min(...notifications.map((n) => n.id));
+      const data = await notificationService.getNotificationsForUser(
+        user.id,
+        oldestId,
+        PAGE_SIZE
+      );
+      setHasMore(data.length === PAGE_SIZE);
+      setNotifications((prev) => [
+        ...prev,
+        ...data.filter((n) => n.type !== "MESSAGE"),
+      ]);
+    } catch (err) {
+      console.error("Failed to load more notifications", err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleMarkAllRead = async () => {
     if (!user) return;
     try {
       await notificationService.markAllAsRead(user.id);
       setNotifications((prev) => prev.map((n) => ({ ...n, readFlag: true })));
+      setUnreadCount(0);
     } catch (err) {
       console.error("Failed to mark all read", err);
     }
@@ -285,6 +327,12 @@ export default function Notifications() {
                         >
                           {n.actorUsername}
                         </Link>
+                        {(n.aggregateCount ?? 1) > 1 && (
+                          <span className="text-foreground/90 mr-1">
+                            and {n.aggregateCount - 1}{" "}
+                            {n.aggregateCount === 2 ? "other" : "others"}
+                          </span>
+                        )}
                         <span className="text-foreground/90">
                           {n.type === "LIKE" && "liked your post."}
                           {n.type === "COMMENT" && `commented: "${n.message}"`}
@@ -346,6 +394,18 @@ export default function Notifications() {
             );
           })
         )}
+        {hasMore && (
+          <div className="flex justify-center py-4">
+            <Button
+              variant="ghost"
+              size="sm"
+              disabled={loadingMore}
+              onClick={handleLoadMore}
+            >
+              {loadingMore ? "Loading..." : "Load more"}
+            </Button>
+          </div>
+        )}
       </div>
     </div>
   );
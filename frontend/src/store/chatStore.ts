@@ -16,10 +16,15 @@ interface ChatState {
   setConversations: (conversations: ConversationResponse[]) => void;
   setActiveConversationId: (id: number | null) => void;
   setMessages: (conversationId: number, messages: MessageDTO[]) => void;
+  prependMessages: (conversationId: number, messages: MessageDTO[]) => void;
   addMessage: (conversationId: number, message: MessageDTO) => void;
   updateTypingStatus: (status: TypingStatus) => void;
   updateUserStatus: (status: UserStatusUpdate) => void;
-  markMessageAsRead: (conversationId: number, messageId: number) => void;
+  markMessageAsRead: (
+    conversationId: number,
+    messageId: number,
+    readerId: number
+  ) => void;
   updateLastMessage: (conversationId: number, message: MessageDTO) => void;
 }
 
@@ -39,6 +44,22 @@ export const useChatStore = create<ChatState>((set) => ({
       messages: { ...state.messages, [conversationId]: messages },
     })),
 
+  // Older page from scroll-back, skipping anything already loaded
+  prependMessages: (conversationId, older) =>
+    set((state) => {
+      const currentMessages = state.messages[conversationId] || [];
+      const loaded = new Set(currentMessages.map((m) => m.id));
+      return {
+        messages: {
+          ...state.messages,
+          [conversationId]: [
+            ...older.filter((m) => !loaded.has(m.id)),
+            ...currentMessages,
+          ],
+        },
+      };
+    }),
+
   addMessage: (conversationId, message) =>
     set((state) => {
       const currentMessages = state.messages[conversationId] || [];
@@ -70,14 +91,16 @@ export const useChatStore = create<ChatState>((set) => ({
       onlineUsers: { ...state.onlineUsers, [status.username]: status.isOnline },
     })),
 
-  markMessageAsRead: (conversationId, messageId) =>
+  markMessageAsRead: (conversationId, messageId, readerId) =>
     set((state) => {
       const currentMessages = state.messages[conversationId] || [];
       return {
         messages: {
           ...state.messages,
           [conversationId]: currentMessages.map((m) =>
-            m.id === messageId ? { ...m, isRead: true } : m
+            m.id <= messageId && m.senderId !== readerId
+              ? { ...m, isRead: true }
+              : m
           ),
         },
       };
@@ -13,8 +13,8 @@ export const useNotificationStore = create<NotificationStore>((set) => ({
   unreadCount: 0,
   fetchUnreadCount: async (userId: number) => {
     try {
-      const list = await notificationService.getUnreadNotifications(userId);
-      set({ unreadCount: list.length });
+      const count = await notificationService.getUnreadCount(userId);
+      set({ unreadCount: count });
     } catch (error) {
       console.error("Failed to fetch notification count", error);
     }
@@ -19,9 +19,29 @@ export interface ConversationResponse {
   isGroup: boolean;
   chatName?: string;
   chatImage?: string;
+  // both members for one-to-one chats, empty for groups
   users: UserResponseType[];
+  memberCount?: number;
   lastMessage?: MessageDTO;
   createdAt: string;
+  unreadCount?: number;
+}
+
+// Per-user inbox row, see GET /api/chat/inbox
+export interface InboxEntryResponse {
+  conversationId: number;
+  isGroup: boolean;
+  chatName?: string;
+  chatImage?: string;
+  peerId?: number;
+  peerUsername?: string;
+  peerProfilePic?: string;
+  lastMessageId?: number;
+  lastSenderId?: number;
+  lastMessagePreview?: string;
+  lastMessageType?: MessageType;
+  lastMessageTimestamp?: string;
+  unreadCount: number;
 }
 
 export interface ChatRequest {
@@ -38,13 +58,30 @@ export interface TypingStatus {
 }
 
 export interface UserStatusUpdate {
+  userId: number;
   username: string;
   isOnline: boolean;
   lastSeen: string;
 }
 
+// Read watermark: every message up to messageId has been read by the reader
 export interface ReadReceipt {
   messageId: number;
   conversationId: number;
+  readerId: number;
   readerUsername: string;
 }
+
+// Reconnect catch-up, see GET /api/events/since
+export interface UserEvent {
+  seq: number;
+  type: "MESSAGE" | "READ" | "NOTIFICATION";
+  payload: unknown;
+  createdAt: string;
+}
+
+export interface UserEventsSince {
+  events: UserEvent[];
+  latestSeq: number;
+  resync: boolean;
+}
@@ -10,4 +10,6 @@ export interface NotificationResponse {
   sourceId?: string; // Corresponds to backend String sourceId
   readFlag: boolean;
   createdAt: string;
+  // > 1 when several actors were coalesced; actorUsername is the latest
+  aggregateCount?: number;
 }